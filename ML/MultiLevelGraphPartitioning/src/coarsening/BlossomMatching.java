@@ -11,7 +11,6 @@ import java.util.Map;
 import java.util.Queue;
 
 import structure.Graph;
-import structure.Node;
 import structure.NodesMatching;
 import structure.Tuple;
 import structure.UnionFind;
@@ -74,14 +73,13 @@ public class BlossomMatching extends Matching {
 		}
 
 		// for each 'free' vertex, start a bfs search
+		int[] xadj = this.graph.getXadj();
+		int[] adjncy = this.graph.getAdjncy();
 		while (!queue.isEmpty()) {
 			int curNodeID = (int) queue.poll();
-			Node curNode = this.graph.getNode(curNodeID+1);
 
-			Node[] curNodeNeighbors = curNode.getNeighbors();
-			for (int j = 0; j < curNodeNeighbors.length; ++j) {
-				Node neighbor = curNodeNeighbors[j];
-				int neighborID = neighbor.getNodeID()-1;
+			for (int j = xadj[curNodeID]; j < xadj[curNodeID + 1]; ++j) {
+				int neighborID = adjncy[j];
 
 				// the endpoints of the edge are both at even levels in the
 				// forest - this means it is either an augmenting path or
@@ -0,0 +1,283 @@
+package coarsening;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+
+import structure.Graph;
+import structure.GraphHierarchy;
+import structure.ScratchBuffers;
+
+/*
+ * Coarsens a graph level by level with a matching until one of the stop criteria is met:
+ * - the coarsest level has at most targetNumberOfNodes nodes, by default NODES_PER_PARTITION * k
+ * - a matching reduces the number of nodes by less than minReduction, the level is not contracted
+ *   since the refinement would run twice on almost the same graph (star like graphs stall this way)
+ * - the hierarchy has maxLevels coarse levels
+ *
+ * the reduction 1 - coarse nodes / fine nodes of each matching is recorded,
+ * including the one of a rejected matching
+ *
+ * if a matching reduces the nodes by less than targetReduction, the nodes it left unmatched
+ * are matched in extra rounds of the same level before the contraction, so less levels
+ * and contractions are needed:
+ * first the second round matching (the matching of the coarsener unless one is set)
+ * matches the subgraph induced by the unmatched nodes, then if twoHopMatching is set
+ * the unmatched nodes that share a neighbor are matched in pairs (it reduces star like graphs
+ * where all the leaves wait for the same center and have no edge between them)
+ */
+public class Coarsener {
+
+	public enum StopReason {
+		TARGET_REACHED, STALLED, LEVEL_BUDGET
+	}
+
+	// coarse nodes per partition of the default target
+	public static final int NODES_PER_PARTITION = 50;
+	public static final double MIN_REDUCTION = 0.05;
+	public static final int MAX_LEVELS = 50;
+	// slots of the work arrays in the scratch buffers
+	private static final int GROUP_SIZE_SLOT = 0;
+	private static final int RENUMBER_SLOT = 1;
+	private static final int INDEX_SLOT = 2;
+
+	private Matching matching;
+	// matching of the unmatched nodes in the extra rounds, null to use matching
+	private Matching secondRoundMatching;
+	private boolean twoHopMatching;
+	private int targetNumberOfNodes;
+	private double minReduction;
+	private int maxLevels;
+	// 0 disables the extra matching rounds
+	private double targetReduction;
+	private boolean offHeap;
+	private int parallelism;
+	private ArrayList<Double> reductions;
+	private StopReason stopReason;
+
+	public Coarsener(Matching matching, int numberOfPartitions) {
+		this.matching = matching;
+		this.targetNumberOfNodes = NODES_PER_PARTITION * numberOfPartitions;
+		this.minReduction = MIN_REDUCTION;
+		this.maxLevels = MAX_LEVELS;
+		this.parallelism = 1;
+	}
+
+	public GraphHierarchy coarsen(Graph graph) {
+		GraphHierarchy hierarchy = new GraphHierarchy(graph);
+		this.matching.setScratchBuffers(hierarchy.getScratchBuffers());
+		if (this.secondRoundMatching != null) {
+			this.secondRoundMatching.setScratchBuffers(hierarchy.getScratchBuffers());
+		}
+		this.reductions = new ArrayList<Double>();
+		this.stopReason = null;
+		Graph last = graph;
+		while (this.stopReason == null) {
+			if (last.getNumberOfNodes() <= this.targetNumberOfNodes) {
+				this.stopReason = StopReason.TARGET_REACHED;
+			} else if (hierarchy.getNumberOfLevels() > this.maxLevels) {
+				this.stopReason = StopReason.LEVEL_BUDGET;
+			} else {
+				int[] cmap = this.matching.coarseMap(last, this.targetNumberOfNodes);
+				int numberOfCoarseNodes = 0;
+				for (int i = 0; i < cmap.length; i++) {
+					numberOfCoarseNodes = Math.max(numberOfCoarseNodes, cmap[i] + 1);
+				}
+				if (1 - (double) numberOfCoarseNodes / last.getNumberOfNodes() < this.targetReduction) {
+					numberOfCoarseNodes = this.matchUnmatched(last, cmap, numberOfCoarseNodes,
+							hierarchy.getScratchBuffers());
+				}
+				double reduction = 1 - (double) numberOfCoarseNodes / last.getNumberOfNodes();
+				this.reductions.add(reduction);
+				if (reduction < this.minReduction) {
+					this.stopReason = StopReason.STALLED;
+				} else {
+					last = hierarchy.addLevel(cmap, this.offHeap, this.parallelism);
+				}
+			}
+		}
+		return hierarchy;
+	}
+
+	/*
+	 * This function runs the extra matching rounds on the nodes that are alone in their coarse node,
+	 * it changes cmap and returns the new number of coarse nodes
+	 * the coarse nodes keep the order of their first node index
+	 */
+	private int matchUnmatched(Graph graph, int[] cmap, int numberOfCoarseNodes, ScratchBuffers scratchBuffers) {
+		int numberOfNodes = graph.getNumberOfNodes();
+		int[] groupSize = countGroups(cmap, numberOfNodes, numberOfCoarseNodes, scratchBuffers);
+		int numberOfUnmatched = 0;
+		for (int i = 0; i < numberOfNodes; i++) {
+			if (groupSize[cmap[i]] == 1) {
+				numberOfUnmatched++;
+			}
+		}
+		int[] unmatched = new int[numberOfUnmatched];
+		numberOfUnmatched = 0;
+		for (int i = 0; i < numberOfNodes; i++) {
+			if (groupSize[cmap[i]] == 1) {
+				unmatched[numberOfUnmatched++] = i;
+			}
+		}
+		int merged = 0;
+
+		// match the subgraph of the unmatched nodes with the second round matching
+		Graph subgraph = graph.createSubgraph(unmatched, numberOfUnmatched,
+				scratchBuffers.getInts(INDEX_SLOT, numberOfNodes));
+		if (subgraph.getNumberOfEdges() > 0) {
+			Matching roundMatching = this.secondRoundMatching != null ? this.secondRoundMatching : this.matching;
+			// the matching uses the scratch buffers, groupSize is counted again after it
+			int[] subgraphCmap = roundMatching.coarseMap(subgraph, -1);
+			int[] first = scratchBuffers.getInts(RENUMBER_SLOT, numberOfUnmatched);
+			Arrays.fill(first, 0, numberOfUnmatched, -1);
+			for (int k = 0; k < numberOfUnmatched; k++) {
+				int node = unmatched[k];
+				if (first[subgraphCmap[k]] < 0) {
+					first[subgraphCmap[k]] = node;
+				} else {
+					cmap[node] = cmap[first[subgraphCmap[k]]];
+					merged++;
+				}
+			}
+		}
+
+		// match unmatched nodes that share a neighbor
+		if (this.twoHopMatching
+				&& 1 - (double) (numberOfCoarseNodes - merged) / numberOfNodes < this.targetReduction) {
+			int[] xadj = graph.getXadj();
+			int[] adjncy = graph.getAdjncy();
+			groupSize = countGroups(cmap, numberOfNodes, numberOfCoarseNodes, scratchBuffers);
+			for (int i = 0; i < numberOfNodes; i++) {
+				int pending = -1;
+				for (int j = xadj[i]; j < xadj[i + 1]; j++) {
+					int neighbor = adjncy[j];
+					if (neighbor == i || groupSize[cmap[neighbor]] != 1) {
+						continue;
+					}
+					if (pending < 0 || pending == neighbor) {
+						pending = neighbor;
+					} else {
+						merge(cmap, groupSize, pending, neighbor);
+						merged++;
+						pending = -1;
+					}
+				}
+			}
+		}
+		if (merged == 0) {
+			return numberOfCoarseNodes;
+		}
+
+		// number the coarse nodes that are still used
+		int[] renumber = scratchBuffers.getInts(RENUMBER_SLOT, numberOfCoarseNodes);
+		Arrays.fill(renumber, 0, numberOfCoarseNodes, -1);
+		int numberOfUsedNodes = 0;
+		for (int i = 0; i < numberOfNodes; i++) {
+			if (renumber[cmap[i]] < 0) {
+				renumber[cmap[i]] = numberOfUsedNodes++;
+			}
+			cmap[i] = renumber[cmap[i]];
+		}
+		return numberOfUsedNodes;
+	}
+
+	/*
+	 * This function returns the number of nodes of each coarse node of cmap
+	 */
+	private static int[] countGroups(int[] cmap, int numberOfNodes, int numberOfCoarseNodes,
+			ScratchBuffers scratchBuffers) {
+		int[] groupSize = scratchBuffers.getInts(GROUP_SIZE_SLOT, numberOfCoarseNodes);
+		Arrays.fill(groupSize, 0, numberOfCoarseNodes, 0);
+		for (int i = 0; i < numberOfNodes; i++) {
+			groupSize[cmap[i]]++;
+		}
+		return groupSize;
+	}
+
+	/*
+	 * moves the node with index node2 to the coarse node of node1
+	 */
+	private static void merge(int[] cmap, int[] groupSize, int node1, int node2) {
+		groupSize[cmap[node2]] = 0;
+		cmap[node2] = cmap[node1];
+		groupSize[cmap[node1]] = 2;
+	}
+
+	/*
+	 * Setters & Getters
+	 */
+	public int getTargetNumberOfNodes() {
+		return targetNumberOfNodes;
+	}
+
+	public void setTargetNumberOfNodes(int targetNumberOfNodes) {
+		this.targetNumberOfNodes = targetNumberOfNodes;
+	}
+
+	public double getMinReduction() {
+		return minReduction;
+	}
+
+	public void setMinReduction(double minReduction) {
+		this.minReduction = minReduction;
+	}
+
+	public int getMaxLevels() {
+		return maxLevels;
+	}
+
+	public void setMaxLevels(int maxLevels) {
+		this.maxLevels = maxLevels;
+	}
+
+	public double getTargetReduction() {
+		return targetReduction;
+	}
+
+	public void setTargetReduction(double targetReduction) {
+		this.targetReduction = targetReduction;
+	}
+
+	public Matching getSecondRoundMatching() {
+		return secondRoundMatching;
+	}
+
+	/*
+	 * the matching of the subgraph of the unmatched nodes in the extra rounds,
+	 * null (the default) to use the matching of the coarsener
+	 */
+	public void setSecondRoundMatching(Matching secondRoundMatching) {
+		this.secondRoundMatching = secondRoundMatching;
+	}
+
+	public boolean isTwoHopMatching() {
+		return twoHopMatching;
+	}
+
+	/*
+	 * if set, the extra rounds also match in pairs the unmatched nodes that share a neighbor
+	 */
+	public void setTwoHopMatching(boolean twoHopMatching) {
+		this.twoHopMatching = twoHopMatching;
+	}
+
+	public void setOffHeap(boolean offHeap) {
+		this.offHeap = offHeap;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	/*
+	 * reduction of the matching of each level of the last coarsening,
+	 * the last one belongs to a rejected matching if the coarsening stalled
+	 */
+	public ArrayList<Double> getReductions() {
+		return reductions;
+	}
+
+	public StopReason getStopReason() {
+		return stopReason;
+	}
+}
@@ -0,0 +1,170 @@
+package coarsening;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+
+import structure.Graph;
+import structure.ParallelTasks;
+
+/*
+ * Handshake (locally dominant) Heavy Edge Matching
+ * in each round every unmatched node proposes to its heaviest unmatched neighbor,
+ * two nodes that propose to each other are matched, the rounds are repeated
+ * until a round matches less than MIN_ROUND_MATCHED of the nodes or MAX_ROUNDS rounds are done
+ * the nodes left are matched like in HeavyEdgeMatching, few are left unless the weights
+ * grow along paths of the graph (bcsstk33), then the proposals form chains
+ * where only the heaviest end of each chain is a handshake
+ *
+ * ties between edges of the same weight are broken by a random rank of the neighbor,
+ * so the edge to the highest ranked end of the heaviest edges is always a handshake
+ * and every round matches at least one pair if any unmatched edge is left
+ *
+ * the proposals and the handshakes of a round are two phases over ranges of nodes,
+ * a phase only writes the entries of its own nodes, so the phases run in parallel
+ * without synchronization and the matching does not depend on the number of threads
+ */
+public class HandshakeMatching extends Matching {
+
+	public static final int MAX_ROUNDS = 8;
+	// the rounds stop when a round matches less than this fraction of the nodes
+	public static final double MIN_ROUND_MATCHED = 0.01;
+	// a phase is not split into ranges of less nodes
+	private static final int MIN_RANGE_SIZE = 1 << 12;
+	// slots of the work arrays in the scratch buffers
+	private static final int PERMUTATION_SLOT = 0;
+	private static final int RANK_SLOT = 1;
+	private static final int PROPOSAL_SLOT = 2;
+	private static final int MATCH_SLOT = 3;
+
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	@Override
+	public ArrayList<ArrayList<Integer>> coarse(Graph graph, int outputGraphNumOfNodes) {
+		return createNodesTree(this.coarseMap(graph, outputGraphNumOfNodes));
+	}
+
+	@Override
+	public int[] coarseMap(Graph graph, int outputGraphNumOfNodes) {
+		final int numberOfNodes = graph.getNumberOfNodes();
+		final int[] xadj = graph.getXadj();
+		final int[] adjncy = graph.getAdjncy();
+		final int[] adjwgt = graph.getAdjwgt();
+		int[] permutation = this.getRandomPermutation(numberOfNodes, PERMUTATION_SLOT);
+		final int[] rank = this.getScratchBuffers().getInts(RANK_SLOT, numberOfNodes);
+		for (int k = 0; k < numberOfNodes; k++) {
+			rank[permutation[k]] = k;
+		}
+		final int[] proposal = this.getScratchBuffers().getInts(PROPOSAL_SLOT, numberOfNodes);
+		final int[] match = this.getScratchBuffers().getInts(MATCH_SLOT, numberOfNodes);
+		for (int i = 0; i < numberOfNodes; i++) {
+			match[i] = -1;
+		}
+
+		int numberOfRanges = Math.max(1, Math.min(this.parallelism, numberOfNodes / MIN_RANGE_SIZE));
+		ArrayList<Callable<Void>> proposeTasks = new ArrayList<Callable<Void>>(numberOfRanges);
+		ArrayList<Callable<Void>> handshakeTasks = new ArrayList<Callable<Void>>(numberOfRanges);
+		final int[] matched = new int[numberOfRanges];
+		for (int r = 0; r < numberOfRanges; r++) {
+			final int range = r;
+			final int start = (int) ((long) numberOfNodes * r / numberOfRanges);
+			final int end = (int) ((long) numberOfNodes * (r + 1) / numberOfRanges);
+			proposeTasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					propose(xadj, adjncy, adjwgt, rank, match, proposal, start, end);
+					return null;
+				}
+			});
+			handshakeTasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					matched[range] = handshake(proposal, match, start, end);
+					return null;
+				}
+			});
+		}
+
+		for (int round = 0; round < MAX_ROUNDS; round++) {
+			int numberOfMatched = 0;
+			if (numberOfRanges == 1) {
+				propose(xadj, adjncy, adjwgt, rank, match, proposal, 0, numberOfNodes);
+				numberOfMatched = handshake(proposal, match, 0, numberOfNodes);
+			} else {
+				ParallelTasks.invokeAll(proposeTasks);
+				ParallelTasks.invokeAll(handshakeTasks);
+				for (int r = 0; r < numberOfRanges; r++) {
+					numberOfMatched += matched[r];
+				}
+			}
+			if (numberOfMatched < MIN_ROUND_MATCHED * numberOfNodes) {
+				break;
+			}
+		}
+		// the nodes left are matched sequentially with their heaviest unmatched neighbor
+		for (int k = 0; k < numberOfNodes; k++) {
+			int node = permutation[k];
+			if (match[node] >= 0) {
+				continue;
+			}
+			propose(xadj, adjncy, adjwgt, rank, match, proposal, node, node + 1);
+			if (proposal[node] < 0) {
+				match[node] = node;
+			} else {
+				match[node] = proposal[node];
+				match[proposal[node]] = node;
+			}
+		}
+		return createCoarseMap(match, numberOfNodes);
+	}
+
+	/*
+	 * each unmatched node of the range proposes to its heaviest unmatched neighbor,
+	 * or to nobody (-1)
+	 */
+	private static void propose(int[] xadj, int[] adjncy, int[] adjwgt, int[] rank, int[] match, int[] proposal,
+			int start, int end) {
+		for (int i = start; i < end; i++) {
+			proposal[i] = -1;
+			if (match[i] >= 0) {
+				continue;
+			}
+			int heaviest = -1;
+			for (int j = xadj[i]; j < xadj[i + 1]; j++) {
+				int neighbor = adjncy[j];
+				if (match[neighbor] >= 0 || neighbor == i) {
+					continue;
+				}
+				if (heaviest < 0 || adjwgt[j] > adjwgt[heaviest]
+						|| (adjwgt[j] == adjwgt[heaviest] && rank[neighbor] > rank[adjncy[heaviest]])) {
+					heaviest = j;
+				}
+			}
+			if (heaviest >= 0) {
+				proposal[i] = adjncy[heaviest];
+			}
+		}
+	}
+
+	/*
+	 * matches the nodes of the range whose proposal is returned,
+	 * it returns the number of nodes matched
+	 */
+	private static int handshake(int[] proposal, int[] match, int start, int end) {
+		int matched = 0;
+		for (int i = start; i < end; i++) {
+			if (proposal[i] >= 0 && proposal[proposal[i]] == i) {
+				match[i] = proposal[i];
+				matched++;
+			}
+		}
+		return matched;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+}
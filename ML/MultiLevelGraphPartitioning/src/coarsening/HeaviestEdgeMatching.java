@@ -1,67 +1,115 @@
 package coarsening;
 
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.Arrays;
 
-import structure.Edge;
 import structure.Graph;
+import structure.ScratchBuffers;
 
 /*
  * Heaviest Edge Matching
  * Add the heaviest edge with unvisited ends first
  * It is a simple greedy algorithm, which has approximation ratio of 1/2
+ *
+ * the edges are read from the adjacency arrays and sorted by weight with a radix sort
+ * in the work arrays of the scratch buffers, the only array allocated is the coarse map
  */
 
 public class HeaviestEdgeMatching extends Matching {
 
+	// slots of the work arrays in the scratch buffers
+	private static final int EDGES_SLOT = 0;
+	private static final int SOURCES_SLOT = 1;
+	private static final int SORTED_SLOT = 2;
+	private static final int COUNTS_SLOT = 3;
+	private static final int MARKER_SLOT = 4;
+	// bits of the weight sorted by each radix pass
+	private static final int RADIX_BITS = 16;
+
 	@Override
 	public ArrayList<ArrayList<Integer>> coarse(Graph graph, int outputGraphNumOfNodes) {
-		// list all unvisited nodes
+		return createNodesTree(this.coarseMap(graph, outputGraphNumOfNodes));
+	}
+
+	@Override
+	public int[] coarseMap(Graph graph, int outputGraphNumOfNodes) {
 		int numberOfNodes = graph.getNumberOfNodes();
-		HashSet<Integer> unvisitedNodes = new HashSet<Integer>(numberOfNodes);
-		HashSet<Integer> visitedNodes = new HashSet<Integer>(numberOfNodes);
-		ArrayList<ArrayList<Integer>> nodesTree = new ArrayList<ArrayList<Integer>>();
+		int[] xadj = graph.getXadj();
+		int[] adjncy = graph.getAdjncy();
+		int[] adjwgt = graph.getAdjwgt();
+		ScratchBuffers scratchBuffers = this.getScratchBuffers();
+
+		// list each edge once from its smaller end, repeated edges are listed once
+		int adjacencyLength = xadj[numberOfNodes];
+		int[] edges = scratchBuffers.getInts(EDGES_SLOT, adjacencyLength);
+		int[] sources = scratchBuffers.getInts(SOURCES_SLOT, adjacencyLength);
+		int[] marker = scratchBuffers.getInts(MARKER_SLOT, numberOfNodes);
+		Arrays.fill(marker, 0, numberOfNodes, -1);
+		int numberOfEdges = 0;
 		for (int i = 0; i < numberOfNodes; i++) {
-			unvisitedNodes.add(i + 1);
+			for (int j = xadj[i]; j < xadj[i + 1]; j++) {
+				if (adjncy[j] > i && marker[adjncy[j]] != i) {
+					marker[adjncy[j]] = i;
+					edges[numberOfEdges++] = j;
+					sources[j] = i;
+				}
+			}
 		}
+		int[] sorted = scratchBuffers.getInts(SORTED_SLOT, numberOfEdges);
+		int[] counts = scratchBuffers.getInts(COUNTS_SLOT, 1 << RADIX_BITS);
+		// the sort is stable, edges of the same weight keep the order of the adjacency arrays
+		radixSort(edges, sorted, numberOfEdges, adjwgt, counts);
 
-		// the edges is sorted, so we loop them from heavier to lighter
+		// loop the edges from heavier to lighter
 		// if any edge has any of its ends visited before skip it
-		Edge[] allEdges = graph.getEdges();
-		for (int i = allEdges.length - 1; i >= 0; i--) {
-			int sourceID = allEdges[i].getSourceID();
-			int destinationID = allEdges[i].getDestinationID();
-			// check if the source or the destination is visited before
-			if (visitedNodes.contains(sourceID) || visitedNodes.contains(destinationID)) {
-				// do not thing
-				continue;
-			} else {
+		int[] cmap = new int[numberOfNodes];
+		Arrays.fill(cmap, -1);
+		int numberOfCoarseNodes = 0;
+		for (int e = numberOfEdges - 1; e >= 0; e--) {
+			int source = sources[edges[e]];
+			int destination = adjncy[edges[e]];
+			if (cmap[source] < 0 && cmap[destination] < 0) {
 				// Collapse Edge ends
-				ArrayList<Integer> parentNode = new ArrayList<>(2);
-				parentNode.add(sourceID);
-				parentNode.add(destinationID);
-				nodesTree.add(parentNode);
-				// add nodes to visited nodes
-				visitedNodes.add(sourceID);
-				visitedNodes.add(destinationID);
-				unvisitedNodes.remove(destinationID);
-				unvisitedNodes.remove(sourceID);
+				cmap[source] = numberOfCoarseNodes;
+				cmap[destination] = numberOfCoarseNodes;
+				numberOfCoarseNodes++;
 			}
 		}
-
 		// add remaining Nodes as parents
-		for (Iterator<Integer> it = unvisitedNodes.iterator(); it.hasNext();) {
-		    int nodeID = it.next();
-		    ArrayList<Integer> parentNode = new ArrayList<>(1);
-			parentNode.add(nodeID);
-			nodesTree.add(parentNode);
-			// add nodes to visited nodes
-			visitedNodes.add(nodeID);
-		    it.remove();
+		for (int i = 0; i < numberOfNodes; i++) {
+			if (cmap[i] < 0) {
+				cmap[i] = numberOfCoarseNodes++;
+			}
+		}
+		return cmap;
+	}
+
+	/*
+	 * This function sorts the first length adjacency positions of values by their weight
+	 * with two passes of a least significant digit radix sort, the result is in values
+	 */
+	private static void radixSort(int[] values, int[] buffer, int length, int[] weights, int[] counts) {
+		int radix = 1 << RADIX_BITS;
+		for (int shift = 0; shift < 32; shift += RADIX_BITS) {
+			Arrays.fill(counts, 0, radix, 0);
+			for (int i = 0; i < length; i++) {
+				counts[digit(weights[values[i]], shift)]++;
+			}
+			int sum = 0;
+			for (int d = 0; d < radix; d++) {
+				int count = counts[d];
+				counts[d] = sum;
+				sum += count;
+			}
+			for (int i = 0; i < length; i++) {
+				buffer[counts[digit(weights[values[i]], shift)]++] = values[i];
+			}
+			System.arraycopy(buffer, 0, values, 0, length);
 		}
-		
-		return nodesTree;
 	}
 
+	private static int digit(int weight, int shift) {
+		// flip the sign bit so negative weights come first
+		return ((weight ^ Integer.MIN_VALUE) >>> shift) & ((1 << RADIX_BITS) - 1);
+	}
 }
@@ -1,98 +1,65 @@
 package coarsening;
 
 import java.util.ArrayList;
-import java.util.Collections;
-import java.util.HashSet;
 
-import structure.Edge;
 import structure.Graph;
 
 /*
  * Heavy Edge Matching
  * Visit graph Node at random Order
- * Choose the heaviest Edge for visited node
+ * Choose the heaviest Edge to an unmatched node for visited node
  * mark both ends for edge
  * repeat process
+ *
+ * the nodes are visited in a random permutation and their rows are scanned in the adjacency arrays,
+ * match[v] is -1 until v is matched, so the matching is linear in the size of the graph
  */
 
-public class HeavyEdgeMatching extends Matching{
+public class HeavyEdgeMatching extends Matching {
 
+	// slots of the work arrays in the scratch buffers
+	private static final int PERMUTATION_SLOT = 0;
+	private static final int MATCH_SLOT = 1;
+
+	@Override
 	public ArrayList<ArrayList<Integer>> coarse(Graph graph, int outputGraphNumOfNodes) {
-		// list all unvisited nodes
-		int numberOfNodes = graph.getNumberOfNodes();
-		ArrayList<Integer> unvisitedNodes = new ArrayList<Integer>(
-				numberOfNodes);
-		HashSet<Integer> visitedNodes = new HashSet<Integer>(numberOfNodes);
-		ArrayList<ArrayList<Integer>> nodesTree = new ArrayList<ArrayList<Integer>>();
-		for (int i = 0; i < numberOfNodes; i++) {
-			unvisitedNodes.add(i + 1);
-		}
+		return createNodesTree(this.coarseMap(graph, outputGraphNumOfNodes));
+	}
 
-		// Store Edges sorted in buckets
-		ArrayList<ArrayList<Edge>> edgesBuckets = new ArrayList<ArrayList<Edge>>(
-				numberOfNodes);
-		//System.out.println(numberOfNodes);
+	@Override
+	public int[] coarseMap(Graph graph, int outputGraphNumOfNodes) {
+		int numberOfNodes = graph.getNumberOfNodes();
+		int[] xadj = graph.getXadj();
+		int[] adjncy = graph.getAdjncy();
+		int[] adjwgt = graph.getAdjwgt();
+		int[] permutation = this.getRandomPermutation(numberOfNodes, PERMUTATION_SLOT);
+		int[] match = this.getScratchBuffers().getInts(MATCH_SLOT, numberOfNodes);
 		for (int i = 0; i < numberOfNodes; i++) {
-			edgesBuckets.add(new ArrayList<Edge>());
-		}
-		Edge[] allEdges = graph.getEdges();
-		for (int i = 0; i < allEdges.length; i++) {
-			int sourceID = allEdges[i].getSourceID();
-			int destinationID = allEdges[i].getDestinationID();
-			//System.out.println(sourceID);
-			edgesBuckets.get(sourceID - 1).add(allEdges[i]);
-			edgesBuckets.get(destinationID - 1).add(allEdges[i]);
+			match[i] = -1;
 		}
 
-		// Randomize Nodes Access
-		Collections.shuffle(unvisitedNodes);
-
-		// get heaviest edge for each node visited
-		int currentNodeID;
-		while (!unvisitedNodes.isEmpty()) {
-			currentNodeID = unvisitedNodes.get(0);
-			// check if current node is visited before
-			if (visitedNodes.contains(currentNodeID)) {
-				unvisitedNodes.remove(0);
+		for (int k = 0; k < numberOfNodes; k++) {
+			int node = permutation[k];
+			if (match[node] >= 0) {
 				continue;
 			}
-			int sourceNodeID, destNodeID, otherNodeID;
-			Edge heavyEdge = null;
-			// get heaviest edge to unvisited node
+			// get heaviest edge to unmatched node
 			// if none exist collapse the node by itself
-			// and mark it as visited
-			for (int j = edgesBuckets.get(currentNodeID - 1).size() - 1; j > +0; j--) {
-				heavyEdge = edgesBuckets.get(currentNodeID - 1).get(j);
-				sourceNodeID = heavyEdge.getSourceID();
-				destNodeID = heavyEdge.getDestinationID();
-				otherNodeID = sourceNodeID + destNodeID - currentNodeID;
-				// check if the other node is visited
-				if (visitedNodes.contains(otherNodeID)) {
-					heavyEdge = null;
-					continue;
+			int heaviest = -1;
+			for (int j = xadj[node]; j < xadj[node + 1]; j++) {
+				int neighbor = adjncy[j];
+				if (match[neighbor] < 0 && neighbor != node
+						&& (heaviest < 0 || adjwgt[j] > adjwgt[heaviest])) {
+					heaviest = j;
 				}
-				// if not visited before
-				break;
 			}
-			ArrayList<Integer> nodeChilds;
-			// check if any Edge was selected
-			if (heavyEdge == null) {
-				// collapse Node by itself
-				nodeChilds = new ArrayList<Integer>();
-				nodeChilds.add(currentNodeID);
-				nodesTree.add(nodeChilds);
-				visitedNodes.add(currentNodeID);
+			if (heaviest < 0) {
+				match[node] = node;
 			} else {
-				nodeChilds = new ArrayList<Integer>();
-				nodeChilds.add(heavyEdge.getSourceID());
-				nodeChilds.add(heavyEdge.getDestinationID());
-				nodesTree.add(nodeChilds);
-				visitedNodes.add(heavyEdge.getSourceID());
-				visitedNodes.add(heavyEdge.getDestinationID());
+				match[node] = adjncy[heaviest];
+				match[adjncy[heaviest]] = node;
 			}
-			unvisitedNodes.remove(0);
 		}
-
-		return nodesTree;
+		return createCoarseMap(match, permutation, numberOfNodes);
 	}
 }
@@ -1,13 +1,175 @@
 package coarsening;
 
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Random;
 
+import structure.CoarseGraph;
 import structure.Graph;
+import structure.ScratchBuffers;
 
 public abstract class Matching {
+
+	// work arrays shared with the other users of the coarsening run
+	protected ScratchBuffers scratchBuffers;
+	protected Random random = new Random();
+	// rows of at most this length are sorted by insertion
+	private static final int INSERTION_SORT_LENGTH = 16;
+
 	// if outputGraphNumOfNodes == -1 just ignore it
 	public abstract ArrayList<ArrayList<Integer>> coarse(Graph graph, int outputGraphNumOfNodes);
+
+	/*
+	 * This function returns the coarse node index of each node index (cmap),
+	 * coarse node i contains the nodes of coarse(...).get(i)
+	 */
+	public int[] coarseMap(Graph graph, int outputGraphNumOfNodes) {
+		return CoarseGraph.createCoarseMap(this.coarse(graph, outputGraphNumOfNodes), graph.getNumberOfNodes());
+	}
 	
+	/*
+	 * This function returns the nodes tree of a coarse map with numberOfCoarseNodes coarse nodes,
+	 * the childs of each coarse node are in increasing order
+	 */
+	protected static ArrayList<ArrayList<Integer>> createNodesTree(int[] cmap, int numberOfCoarseNodes) {
+		ArrayList<ArrayList<Integer>> nodesTree = new ArrayList<ArrayList<Integer>>(numberOfCoarseNodes);
+		for (int i = 0; i < numberOfCoarseNodes; i++) {
+			nodesTree.add(new ArrayList<Integer>(2));
+		}
+		for (int i = 0; i < cmap.length; i++) {
+			nodesTree.get(cmap[i]).add(i + 1);
+		}
+		return nodesTree;
+	}
+
+	/*
+	 * This function returns a random permutation of the node indices 0 ... numberOfNodes - 1
+	 * in the work array of the given slot, using Durstenfeld's algorithm
+	 */
+	protected int[] getRandomPermutation(int numberOfNodes, int slot) {
+		int[] permutation = this.getScratchBuffers().getInts(slot, numberOfNodes);
+		for (int i = 0; i < numberOfNodes; i++) {
+			permutation[i] = i;
+		}
+		for (int i = numberOfNodes - 1; i > 0; i--) {
+			int randomIndex = this.random.nextInt(i + 1);
+			int tmp = permutation[randomIndex];
+			permutation[randomIndex] = permutation[i];
+			permutation[i] = tmp;
+		}
+		return permutation;
+	}
+
+	/*
+	 * This function returns the coarse map of a matching, match[v] is the node index matched with v
+	 * or v if it is not matched, the coarse nodes are numbered by the position
+	 * of their first node in order
+	 */
+	protected static int[] createCoarseMap(int[] match, int[] order, int numberOfNodes) {
+		int[] cmap = new int[numberOfNodes];
+		Arrays.fill(cmap, -1);
+		int numberOfCoarseNodes = 0;
+		for (int k = 0; k < numberOfNodes; k++) {
+			int node = order[k];
+			if (cmap[node] < 0) {
+				cmap[node] = numberOfCoarseNodes;
+				cmap[match[node]] = numberOfCoarseNodes;
+				numberOfCoarseNodes++;
+			}
+		}
+		return cmap;
+	}
+
+	/*
+	 * This function returns the coarse map of a matching,
+	 * the coarse nodes are numbered in the order of their smaller node index
+	 */
+	protected static int[] createCoarseMap(int[] match, int numberOfNodes) {
+		int[] cmap = new int[numberOfNodes];
+		int numberOfCoarseNodes = 0;
+		for (int i = 0; i < numberOfNodes; i++) {
+			if (match[i] >= i) {
+				cmap[i] = numberOfCoarseNodes;
+				cmap[match[i]] = numberOfCoarseNodes;
+				numberOfCoarseNodes++;
+			}
+		}
+		return cmap;
+	}
+
+	/*
+	 * This function returns the nodes tree of a coarse map
+	 */
+	protected static ArrayList<ArrayList<Integer>> createNodesTree(int[] cmap) {
+		int numberOfCoarseNodes = 0;
+		for (int i = 0; i < cmap.length; i++) {
+			numberOfCoarseNodes = Math.max(numberOfCoarseNodes, cmap[i] + 1);
+		}
+		return createNodesTree(cmap, numberOfCoarseNodes);
+	}
+
+	/*
+	 * This function sorts the adjacency positions start ... end - 1 of a row into order,
+	 * from the heaviest to the lightest edge and the larger neighbor first between edges of the same weight,
+	 * buffer is a work array of the same length as order
+	 */
+	protected static void sortRow(int[] adjncy, int[] adjwgt, int[] order, int[] buffer, int start, int end) {
+		for (int j = start; j < end; j++) {
+			order[j] = j;
+		}
+		mergeSort(adjncy, adjwgt, order, buffer, start, end);
+	}
+
+	private static void mergeSort(int[] adjncy, int[] adjwgt, int[] order, int[] buffer, int start, int end) {
+		if (end - start <= INSERTION_SORT_LENGTH) {
+			for (int k = start + 1; k < end; k++) {
+				int value = order[k];
+				int l = k - 1;
+				while (l >= start && heavierInRow(adjncy, adjwgt, value, order[l])) {
+					order[l + 1] = order[l];
+					l--;
+				}
+				order[l + 1] = value;
+			}
+			return;
+		}
+		int middle = (start + end) >>> 1;
+		mergeSort(adjncy, adjwgt, order, buffer, start, middle);
+		mergeSort(adjncy, adjwgt, order, buffer, middle, end);
+		int left = start;
+		int right = middle;
+		for (int k = start; k < end; k++) {
+			if (right >= end || (left < middle && !heavierInRow(adjncy, adjwgt, order[right], order[left]))) {
+				buffer[k] = order[left++];
+			} else {
+				buffer[k] = order[right++];
+			}
+		}
+		System.arraycopy(buffer, start, order, start, end - start);
+	}
+
+	private static boolean heavierInRow(int[] adjncy, int[] adjwgt, int edge1, int edge2) {
+		if (adjwgt[edge1] != adjwgt[edge2]) {
+			return adjwgt[edge1] > adjwgt[edge2];
+		}
+		return adjncy[edge1] > adjncy[edge2];
+	}
+
+	public void setSeed(long seed) {
+		this.random.setSeed(seed);
+	}
+
+	public ScratchBuffers getScratchBuffers() {
+		if (this.scratchBuffers == null) {
+			this.scratchBuffers = new ScratchBuffers();
+		}
+		return scratchBuffers;
+	}
+
+	public void setScratchBuffers(ScratchBuffers scratchBuffers) {
+		this.scratchBuffers = scratchBuffers;
+	}
+
 	public String getSchemeName(){
 		
 		String name = this.getClass().getName();
@@ -0,0 +1,145 @@
+package coarsening;
+
+import java.util.ArrayList;
+
+import structure.Graph;
+
+/*
+ * Modified Heavy Edge Matching (heavy clique matching)
+ * Visit graph Node at random Order
+ * Choose the heaviest Edge to an unmatched node for visited node,
+ * between edges of the same weight choose the neighbor that makes the densest coarse node,
+ * the density of a coarse node is the weight of the edges between the original nodes inside it
+ * over the number of pairs of these nodes, so the coarse nodes stay close to cliques through the levels
+ *
+ * the weight of the edges inside each node and the number of original nodes it contains
+ * are kept by the coarse graph, on the first level every pair of nodes has the same density,
+ * so between neighbors of the same density the one that shares the most neighbors with the visited node
+ * is chosen (unit weight graphs like 3elt and crack tie all the edges of the first level),
+ * the neighbors of the visited node are marked in a marker array and the rows of the tied neighbors
+ * are scanned only if more than one edge has the highest density
+ */
+
+public class ModifiedHeavyEdgeMatching extends Matching {
+
+	// slots of the work arrays in the scratch buffers
+	private static final int PERMUTATION_SLOT = 0;
+	private static final int MATCH_SLOT = 1;
+	private static final int MARKER_SLOT = 2;
+
+	@Override
+	public ArrayList<ArrayList<Integer>> coarse(Graph graph, int outputGraphNumOfNodes) {
+		return createNodesTree(this.coarseMap(graph, outputGraphNumOfNodes));
+	}
+
+	@Override
+	public int[] coarseMap(Graph graph, int outputGraphNumOfNodes) {
+		int numberOfNodes = graph.getNumberOfNodes();
+		int[] xadj = graph.getXadj();
+		int[] adjncy = graph.getAdjncy();
+		int[] adjwgt = graph.getAdjwgt();
+		long[] internalEdgeWeights = graph.getInternalEdgeWeights();
+		int[] originalNodeCounts = graph.getOriginalNodeCounts();
+		int[] permutation = this.getRandomPermutation(numberOfNodes, PERMUTATION_SLOT);
+		int[] match = this.getScratchBuffers().getInts(MATCH_SLOT, numberOfNodes);
+		int[] marker = this.getScratchBuffers().getInts(MARKER_SLOT, numberOfNodes);
+		for (int i = 0; i < numberOfNodes; i++) {
+			match[i] = -1;
+			marker[i] = -1;
+		}
+
+		for (int k = 0; k < numberOfNodes; k++) {
+			int node = permutation[k];
+			if (match[node] >= 0) {
+				continue;
+			}
+			// get heaviest edge to unmatched node and the number of edges of its weight
+			int heaviest = -1;
+			int ties = 0;
+			for (int j = xadj[node]; j < xadj[node + 1]; j++) {
+				int neighbor = adjncy[j];
+				if (match[neighbor] >= 0 || neighbor == node) {
+					continue;
+				}
+				if (heaviest < 0 || adjwgt[j] > adjwgt[heaviest]) {
+					heaviest = j;
+					ties = 1;
+				} else if (adjwgt[j] == adjwgt[heaviest]) {
+					ties++;
+				}
+			}
+			if (ties > 1) {
+				// choose the tied neighbor that makes the densest coarse node,
+				// then the one with the most shared neighbors
+				int weight = adjwgt[heaviest];
+				double highestDensity = -1;
+				int heaviestShared = -1;
+				boolean marked = false;
+				for (int j = heaviest; j < xadj[node + 1]; j++) {
+					int neighbor = adjncy[j];
+					if (adjwgt[j] != weight || match[neighbor] >= 0 || neighbor == node) {
+						continue;
+					}
+					double density = density(internalEdgeWeights, originalNodeCounts, node, neighbor, weight);
+					if (density > highestDensity) {
+						highestDensity = density;
+						heaviest = j;
+						heaviestShared = -1;
+					} else if (density == highestDensity) {
+						if (!marked) {
+							for (int l = xadj[node]; l < xadj[node + 1]; l++) {
+								marker[adjncy[l]] = node;
+							}
+							marked = true;
+						}
+						if (heaviestShared < 0) {
+							heaviestShared = shared(xadj, adjncy, marker, node, adjncy[heaviest]);
+						}
+						int shared = shared(xadj, adjncy, marker, node, neighbor);
+						if (shared > heaviestShared) {
+							heaviestShared = shared;
+							heaviest = j;
+						}
+					}
+				}
+			}
+			// if none exist collapse the node by itself
+			if (heaviest < 0) {
+				match[node] = node;
+			} else {
+				match[node] = adjncy[heaviest];
+				match[adjncy[heaviest]] = node;
+			}
+		}
+		return createCoarseMap(match, permutation, numberOfNodes);
+	}
+
+	/*
+	 * This function returns the edge density of the coarse node of node and neighbor
+	 * joined by an edge of the given weight
+	 */
+	private static double density(long[] internalEdgeWeights, int[] originalNodeCounts, int node, int neighbor,
+			int weight) {
+		long inside = weight;
+		long size = 2;
+		if (internalEdgeWeights != null) {
+			inside += internalEdgeWeights[node] + internalEdgeWeights[neighbor];
+			size = (long) originalNodeCounts[node] + originalNodeCounts[neighbor];
+		}
+		return 2.0 * inside / (size * (size - 1.0));
+	}
+
+	/*
+	 * This function returns the number of neighbors of neighbor that are neighbors of node,
+	 * the neighbors of node are marked with node
+	 */
+	private static int shared(int[] xadj, int[] adjncy, int[] marker, int node, int neighbor) {
+		int shared = 0;
+		for (int l = xadj[neighbor]; l < xadj[neighbor + 1]; l++) {
+			if (marker[adjncy[l]] == node && adjncy[l] != node) {
+				shared++;
+			}
+		}
+		return shared;
+	}
+}
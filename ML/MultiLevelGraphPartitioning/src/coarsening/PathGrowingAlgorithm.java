@@ -0,0 +1,113 @@
+package coarsening;
+
+import java.util.ArrayList;
+
+import structure.Graph;
+import structure.ScratchBuffers;
+
+/*
+ * Path Growing Algorithm (Drake & Hougardy), improved version
+ * a path is grown from a node by following the heaviest edge to a node that is not on any path yet,
+ * until the last node has no such neighbor, then a new path starts at the next node not on a path
+ * each path gets its maximum weight matching by dynamic programming over its edges,
+ * at last each unmatched node is matched with its heaviest unmatched neighbor so the matching is maximal
+ *
+ * each row is scanned once while growing the paths and once more by the last step,
+ * so it runs in linear time and has approximation ratio of 1/2 like HeaviestEdgeMatching
+ * without sorting the edges
+ */
+public class PathGrowingAlgorithm extends Matching {
+
+	// slots of the work arrays in the scratch buffers
+	private static final int MATCH_SLOT = 0;
+	private static final int PATH_SLOT = 1;
+	private static final int PATH_WEIGHT_SLOT = 2;
+	// slot of the long work array
+	private static final int BEST_SLOT = 0;
+
+	@Override
+	public ArrayList<ArrayList<Integer>> coarse(Graph graph, int outputGraphNumOfNodes) {
+		return createNodesTree(this.coarseMap(graph, outputGraphNumOfNodes));
+	}
+
+	@Override
+	public int[] coarseMap(Graph graph, int outputGraphNumOfNodes) {
+		int numberOfNodes = graph.getNumberOfNodes();
+		int[] xadj = graph.getXadj();
+		int[] adjncy = graph.getAdjncy();
+		int[] adjwgt = graph.getAdjwgt();
+		ScratchBuffers scratchBuffers = this.getScratchBuffers();
+		// -2 not on a path yet, -1 unmatched, otherwise the matched node
+		int[] match = scratchBuffers.getInts(MATCH_SLOT, numberOfNodes);
+		int[] path = scratchBuffers.getInts(PATH_SLOT, numberOfNodes);
+		// pathWeight[k] is the weight of the edge between path[k - 1] and path[k]
+		int[] pathWeight = scratchBuffers.getInts(PATH_WEIGHT_SLOT, numberOfNodes);
+		// best[k] is the weight of the best matching of the first k nodes of the path
+		long[] best = scratchBuffers.getLongs(BEST_SLOT, numberOfNodes + 1);
+		for (int i = 0; i < numberOfNodes; i++) {
+			match[i] = -2;
+		}
+
+		for (int i = 0; i < numberOfNodes; i++) {
+			if (match[i] != -2) {
+				continue;
+			}
+			// grow a path from i
+			int length = 0;
+			int last = i;
+			while (last >= 0) {
+				match[last] = -1;
+				path[length++] = last;
+				int heaviest = -1;
+				for (int j = xadj[last]; j < xadj[last + 1]; j++) {
+					if (match[adjncy[j]] == -2 && (heaviest < 0 || adjwgt[j] > adjwgt[heaviest])) {
+						heaviest = j;
+					}
+				}
+				if (heaviest >= 0) {
+					pathWeight[length] = adjwgt[heaviest];
+					last = adjncy[heaviest];
+				} else {
+					last = -1;
+				}
+			}
+
+			// maximum weight matching of the path
+			best[0] = 0;
+			best[1] = 0;
+			for (int k = 2; k <= length; k++) {
+				best[k] = Math.max(best[k - 1], best[k - 2] + pathWeight[k - 1]);
+			}
+			int k = length;
+			while (k >= 2) {
+				if (best[k] == best[k - 1]) {
+					k--;
+				} else {
+					match[path[k - 1]] = path[k - 2];
+					match[path[k - 2]] = path[k - 1];
+					k -= 2;
+				}
+			}
+		}
+
+		// make the matching maximal
+		for (int i = 0; i < numberOfNodes; i++) {
+			if (match[i] >= 0) {
+				continue;
+			}
+			int heaviest = -1;
+			for (int j = xadj[i]; j < xadj[i + 1]; j++) {
+				if (match[adjncy[j]] < 0 && adjncy[j] != i && (heaviest < 0 || adjwgt[j] > adjwgt[heaviest])) {
+					heaviest = j;
+				}
+			}
+			if (heaviest >= 0) {
+				match[i] = adjncy[heaviest];
+				match[adjncy[heaviest]] = i;
+			} else {
+				match[i] = i;
+			}
+		}
+		return createCoarseMap(match, numberOfNodes);
+	}
+}
@@ -0,0 +1,138 @@
+package coarsening;
+
+import java.util.ArrayList;
+
+import structure.Graph;
+import structure.ScratchBuffers;
+
+/*
+ * Preis Algorithm, locally dominant edges
+ * an edge is locally dominant if it is the heaviest edge to an unmatched node of both its ends,
+ * each node points to the heaviest edge to an unmatched neighbor (its candidate),
+ * two nodes that are the candidate of each other are matched,
+ * then the unmatched neighbors that pointed to a matched node get a new candidate
+ * in the order of a worklist of the matched nodes
+ *
+ * the edges are ordered by weight, then by their smaller end, then by their larger end
+ * (a node prefers the larger neighbor between edges of the same weight),
+ * so the result is the matching of the greedy heaviest edge scan with this order,
+ * like SuitorMatching, with approximation ratio of 1/2 but without sorting the edges
+ *
+ * a node gets its first candidate by a scan of its row, when it needs a new one its row is sorted once
+ * and the search resumes at the last candidate, the matched nodes stay matched so the edges before it
+ * are never candidates again (otherwise a node of high degree rescans its row for each matched neighbor)
+ */
+public class PreisAlgorithm extends Matching {
+
+	// slots of the work arrays in the scratch buffers
+	private static final int CANDIDATE_SLOT = 0;
+	private static final int MATCH_SLOT = 1;
+	private static final int QUEUE_SLOT = 2;
+	private static final int NEXT_SLOT = 3;
+	private static final int ORDER_SLOT = 4;
+	private static final int BUFFER_SLOT = 5;
+	// state of a node in next besides the position of its candidate in its sorted row
+	private static final int NOT_SORTED = -1;
+
+	@Override
+	public ArrayList<ArrayList<Integer>> coarse(Graph graph, int outputGraphNumOfNodes) {
+		return createNodesTree(this.coarseMap(graph, outputGraphNumOfNodes));
+	}
+
+	@Override
+	public int[] coarseMap(Graph graph, int outputGraphNumOfNodes) {
+		int numberOfNodes = graph.getNumberOfNodes();
+		int[] xadj = graph.getXadj();
+		int[] adjncy = graph.getAdjncy();
+		int[] adjwgt = graph.getAdjwgt();
+		ScratchBuffers scratchBuffers = this.getScratchBuffers();
+		int[] candidate = scratchBuffers.getInts(CANDIDATE_SLOT, numberOfNodes);
+		int[] match = scratchBuffers.getInts(MATCH_SLOT, numberOfNodes);
+		// matched nodes whose neighbors are not updated yet
+		int[] queue = scratchBuffers.getInts(QUEUE_SLOT, numberOfNodes);
+		int[] next = scratchBuffers.getInts(NEXT_SLOT, numberOfNodes);
+		int[] order = scratchBuffers.getInts(ORDER_SLOT, xadj[numberOfNodes]);
+		int[] buffer = scratchBuffers.getInts(BUFFER_SLOT, xadj[numberOfNodes]);
+		int head = 0;
+		int tail = 0;
+		for (int i = 0; i < numberOfNodes; i++) {
+			match[i] = -1;
+			next[i] = NOT_SORTED;
+		}
+		for (int i = 0; i < numberOfNodes; i++) {
+			candidate[i] = findCandidate(xadj, adjncy, adjwgt, match, i);
+		}
+		for (int i = 0; i < numberOfNodes; i++) {
+			int c = candidate[i];
+			if (match[i] < 0 && c >= 0 && candidate[c] == i) {
+				match[i] = c;
+				match[c] = i;
+				queue[tail++] = i;
+				queue[tail++] = c;
+			}
+		}
+
+		while (head < tail) {
+			int node = queue[head++];
+			for (int j = xadj[node]; j < xadj[node + 1]; j++) {
+				int neighbor = adjncy[j];
+				if (match[neighbor] >= 0 || candidate[neighbor] != node) {
+					continue;
+				}
+				int c = nextCandidate(xadj, adjncy, adjwgt, match, next, order, buffer, neighbor);
+				candidate[neighbor] = c;
+				if (c >= 0 && candidate[c] == neighbor) {
+					match[neighbor] = c;
+					match[c] = neighbor;
+					queue[tail++] = neighbor;
+					queue[tail++] = c;
+				}
+			}
+		}
+
+		// add remaining Nodes as parents
+		for (int i = 0; i < numberOfNodes; i++) {
+			if (match[i] < 0) {
+				match[i] = i;
+			}
+		}
+		return createCoarseMap(match, numberOfNodes);
+	}
+
+	/*
+	 * This function returns the unmatched neighbor of the node with the heaviest edge, or -1
+	 */
+	private static int findCandidate(int[] xadj, int[] adjncy, int[] adjwgt, int[] match, int node) {
+		int heaviest = -1;
+		for (int j = xadj[node]; j < xadj[node + 1]; j++) {
+			int neighbor = adjncy[j];
+			if (match[neighbor] >= 0 || neighbor == node) {
+				continue;
+			}
+			if (heaviest < 0 || adjwgt[j] > adjwgt[heaviest]
+					|| (adjwgt[j] == adjwgt[heaviest] && neighbor > adjncy[heaviest])) {
+				heaviest = j;
+			}
+		}
+		return heaviest < 0 ? -1 : adjncy[heaviest];
+	}
+
+	/*
+	 * This function returns the unmatched neighbor of the node with the heaviest edge, or -1,
+	 * resuming at the position of the last candidate in the sorted row of the node
+	 */
+	private static int nextCandidate(int[] xadj, int[] adjncy, int[] adjwgt, int[] match, int[] next, int[] order,
+			int[] buffer, int node) {
+		int end = xadj[node + 1];
+		int position = next[node];
+		if (position == NOT_SORTED) {
+			sortRow(adjncy, adjwgt, order, buffer, xadj[node], end);
+			position = xadj[node];
+		}
+		while (position < end && (match[adjncy[order[position]]] >= 0 || adjncy[order[position]] == node)) {
+			position++;
+		}
+		next[node] = position;
+		return position < end ? adjncy[order[position]] : -1;
+	}
+}
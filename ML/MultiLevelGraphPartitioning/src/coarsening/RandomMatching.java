@@ -0,0 +1,62 @@
+package coarsening;
+
+import java.util.ArrayList;
+
+import structure.Graph;
+
+/*
+ * Random Matching
+ * Visit graph Node at random Order
+ * Choose an unmatched neighbor of visited node ignoring the edge weights,
+ * the row is scanned from a random position so any unmatched neighbor can be chosen
+ * if none exist collapse the node by itself
+ *
+ * it is the cheapest maximal matching, a baseline for the time the weighted matchings spend
+ * and the edge cut they gain, the only array allocated is the coarse map
+ */
+
+public class RandomMatching extends Matching {
+
+	// slots of the work arrays in the scratch buffers
+	private static final int PERMUTATION_SLOT = 0;
+	private static final int MATCH_SLOT = 1;
+
+	@Override
+	public ArrayList<ArrayList<Integer>> coarse(Graph graph, int outputGraphNumOfNodes) {
+		return createNodesTree(this.coarseMap(graph, outputGraphNumOfNodes));
+	}
+
+	@Override
+	public int[] coarseMap(Graph graph, int outputGraphNumOfNodes) {
+		int numberOfNodes = graph.getNumberOfNodes();
+		int[] xadj = graph.getXadj();
+		int[] adjncy = graph.getAdjncy();
+		int[] permutation = this.getRandomPermutation(numberOfNodes, PERMUTATION_SLOT);
+		int[] match = this.getScratchBuffers().getInts(MATCH_SLOT, numberOfNodes);
+		for (int i = 0; i < numberOfNodes; i++) {
+			match[i] = -1;
+		}
+
+		for (int k = 0; k < numberOfNodes; k++) {
+			int node = permutation[k];
+			if (match[node] >= 0) {
+				continue;
+			}
+			match[node] = node;
+			int degree = xadj[node + 1] - xadj[node];
+			if (degree == 0) {
+				continue;
+			}
+			int offset = this.random.nextInt(degree);
+			for (int l = 0; l < degree; l++) {
+				int neighbor = adjncy[xadj[node] + (offset + l) % degree];
+				if (match[neighbor] < 0) {
+					match[node] = neighbor;
+					match[neighbor] = node;
+					break;
+				}
+			}
+		}
+		return createCoarseMap(match, permutation, numberOfNodes);
+	}
+}
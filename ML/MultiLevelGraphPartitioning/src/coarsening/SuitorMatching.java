@@ -0,0 +1,237 @@
+package coarsening;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import structure.Graph;
+import structure.ParallelTasks;
+
+/*
+ * Suitor Matching (Manne & Halappanavar)
+ * every node proposes to the neighbor with the heaviest edge that is heavier than the edge
+ * of the current suitor of the neighbor, the suitor it replaces proposes again to its next best neighbor,
+ * when no node can propose anymore the nodes that are the suitor of each other are matched
+ *
+ * the edges are ordered by weight, then by their smaller end, then by their larger end,
+ * the result is the matching of the greedy heaviest edge scan with this order
+ * (the one of HeaviestEdgeMatching when the adjacency arrays are sorted), so it has the same
+ * approximation ratio of 1/2, but it does not sort the edges and the nodes propose in parallel
+ *
+ * the suitor of a node is stored as the adjacency position of its edge in the row of the suitor,
+ * so the weight and the suitor are replaced together by one compare and set without locks,
+ * the matching does not depend on the number of threads or the order of the proposals
+ *
+ * the suitor edge of a node only gets heavier, so a neighbor that refused a node refuses it forever,
+ * a node proposes first after a scan of its row, and the row of a displaced node is sorted
+ * so its next proposals resume after the last one (graphs with graded weights like bcsstk33
+ * displace each node many times)
+ */
+public class SuitorMatching extends Matching {
+
+	// a range of nodes is not split into ranges of less nodes
+	private static final int MIN_RANGE_SIZE = 1 << 12;
+	// ranges per thread, the proposals of a range displace a varying number of suitors
+	private static final int RANGES_PER_THREAD = 4;
+	// slots of the work arrays in the scratch buffers
+	private static final int SOURCES_SLOT = 0;
+	private static final int ORDER_SLOT = 1;
+	private static final int BUFFER_SLOT = 2;
+	private static final int NEXT_SLOT = 3;
+	private static final int MATCH_SLOT = 4;
+	// states of a node in next besides the position to resume at in its sorted row
+	private static final int NOT_PROPOSED = -1;
+
+	private int parallelism = Runtime.getRuntime().availableProcessors();
+
+	@Override
+	public ArrayList<ArrayList<Integer>> coarse(Graph graph, int outputGraphNumOfNodes) {
+		return createNodesTree(this.coarseMap(graph, outputGraphNumOfNodes));
+	}
+
+	@Override
+	public int[] coarseMap(Graph graph, int outputGraphNumOfNodes) {
+		final int numberOfNodes = graph.getNumberOfNodes();
+		final int[] xadj = graph.getXadj();
+		final int[] adjncy = graph.getAdjncy();
+		final int[] adjwgt = graph.getAdjwgt();
+		final int[] sources = this.getScratchBuffers().getInts(SOURCES_SLOT, xadj[numberOfNodes]);
+		final int[] order = this.getScratchBuffers().getInts(ORDER_SLOT, xadj[numberOfNodes]);
+		final int[] buffer = this.getScratchBuffers().getInts(BUFFER_SLOT, xadj[numberOfNodes]);
+		final int[] next = this.getScratchBuffers().getInts(NEXT_SLOT, numberOfNodes);
+		// adjacency position of the edge of the suitor of each node, or -1
+		final AtomicIntegerArray suitor = new AtomicIntegerArray(numberOfNodes);
+
+		int numberOfRanges = Math.max(1,
+				Math.min(this.parallelism * RANGES_PER_THREAD, numberOfNodes / MIN_RANGE_SIZE));
+		ArrayList<Callable<Void>> sourceTasks = new ArrayList<Callable<Void>>(numberOfRanges);
+		ArrayList<Callable<Void>> proposeTasks = new ArrayList<Callable<Void>>(numberOfRanges);
+		for (int r = 0; r < numberOfRanges; r++) {
+			final int start = (int) ((long) numberOfNodes * r / numberOfRanges);
+			final int end = (int) ((long) numberOfNodes * (r + 1) / numberOfRanges);
+			sourceTasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					fillSources(xadj, sources, next, suitor, start, end);
+					return null;
+				}
+			});
+			proposeTasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					propose(xadj, adjncy, adjwgt, sources, order, buffer, next, suitor, start, end);
+					return null;
+				}
+			});
+		}
+		if (numberOfRanges == 1) {
+			fillSources(xadj, sources, next, suitor, 0, numberOfNodes);
+			propose(xadj, adjncy, adjwgt, sources, order, buffer, next, suitor, 0, numberOfNodes);
+		} else {
+			ParallelTasks.invokeAll(sourceTasks, this.parallelism);
+			ParallelTasks.invokeAll(proposeTasks, this.parallelism);
+		}
+
+		// match the nodes that are the suitor of each other
+		int[] match = this.getScratchBuffers().getInts(MATCH_SLOT, numberOfNodes);
+		for (int i = 0; i < numberOfNodes; i++) {
+			match[i] = i;
+			int edge = suitor.get(i);
+			if (edge >= 0) {
+				int partner = sources[edge];
+				int partnerEdge = suitor.get(partner);
+				if (partnerEdge >= 0 && sources[partnerEdge] == i) {
+					match[i] = partner;
+				}
+			}
+		}
+		return createCoarseMap(match, numberOfNodes);
+	}
+
+	/*
+	 * stores the row of each adjacency position of the range of nodes, and clears their suitors
+	 */
+	private static void fillSources(int[] xadj, int[] sources, int[] next, AtomicIntegerArray suitor, int start,
+			int end) {
+		for (int i = start; i < end; i++) {
+			for (int j = xadj[i]; j < xadj[i + 1]; j++) {
+				sources[j] = i;
+			}
+			next[i] = NOT_PROPOSED;
+			suitor.set(i, -1);
+		}
+	}
+
+	/*
+	 * each node of the range proposes, and each suitor it displaces proposes again
+	 * until a proposal displaces nobody or a node has no neighbor left to propose to
+	 *
+	 * next[v] is NOT_PROPOSED, or -2 - the edge of the proposal of v after a scan of its unsorted row,
+	 * or the position in its sorted row to resume at, it is only used by the thread that moves v,
+	 * and it is written before the compare and set that makes v a suitor that other threads can displace
+	 */
+	private static void propose(int[] xadj, int[] adjncy, int[] adjwgt, int[] sources, int[] order, int[] buffer,
+			int[] next, AtomicIntegerArray suitor, int start, int end) {
+		for (int i = start; i < end; i++) {
+			int current = i;
+			while (current >= 0) {
+				int state = next[current];
+				int rowEnd = xadj[current + 1];
+				int best = -1;
+				int position = -1;
+				if (state == NOT_PROPOSED) {
+					// find the heaviest edge to a neighbor that would accept current as its suitor
+					for (int j = xadj[current]; j < rowEnd; j++) {
+						int neighbor = adjncy[j];
+						if (neighbor == current || (best >= 0 && !heavier(adjncy, adjwgt, sources, j, best))) {
+							continue;
+						}
+						int edge = suitor.get(neighbor);
+						if (edge < 0 || heavier(adjncy, adjwgt, sources, j, edge)) {
+							best = j;
+						}
+					}
+				} else {
+					if (state < NOT_PROPOSED) {
+						// current was displaced for the first time, the edges before its last proposal refused it
+						position = sortRow(adjncy, adjwgt, order, buffer, xadj[current], rowEnd, NOT_PROPOSED - 1 - state)
+								+ 1;
+					} else {
+						position = state;
+					}
+					for (; position < rowEnd; position++) {
+						int j = order[position];
+						int edge = suitor.get(adjncy[j]);
+						if (adjncy[j] != current && (edge < 0 || heavier(adjncy, adjwgt, sources, j, edge))) {
+							best = j;
+							break;
+						}
+					}
+				}
+				if (best < 0) {
+					break;
+				}
+				next[current] = position < 0 ? NOT_PROPOSED - 1 - best : position + 1;
+				int neighbor = adjncy[best];
+				int displaced = -1;
+				boolean accepted = false;
+				// retry while another node becomes the suitor of the neighbor and best is still heavier
+				while (true) {
+					int edge = suitor.get(neighbor);
+					if (edge >= 0 && !heavier(adjncy, adjwgt, sources, best, edge)) {
+						break;
+					}
+					if (suitor.compareAndSet(neighbor, edge, best)) {
+						displaced = edge;
+						accepted = true;
+						break;
+					}
+				}
+				if (accepted) {
+					current = displaced < 0 ? -1 : sources[displaced];
+				} else if (position < 0) {
+					// the neighbor refused the proposal, scan the row again
+					next[current] = NOT_PROPOSED;
+				}
+			}
+		}
+	}
+
+	/*
+	 * This function sorts the adjacency positions start ... end - 1 of a row from the heaviest
+	 * to the lightest edge into order, and returns the position of the given edge in it
+	 * (the edges of a row have the same source, so the order of heavier is the one of Matching.sortRow)
+	 */
+	private static int sortRow(int[] adjncy, int[] adjwgt, int[] order, int[] buffer, int start, int end, int edge) {
+		sortRow(adjncy, adjwgt, order, buffer, start, end);
+		int position = start;
+		while (order[position] != edge) {
+			position++;
+		}
+		return position;
+	}
+
+	/*
+	 * This function returns whether the edge at adjacency position edge1 comes after
+	 * the edge at position edge2 in the order of the edges
+	 */
+	private static boolean heavier(int[] adjncy, int[] adjwgt, int[] sources, int edge1, int edge2) {
+		if (adjwgt[edge1] != adjwgt[edge2]) {
+			return adjwgt[edge1] > adjwgt[edge2];
+		}
+		int min1 = Math.min(sources[edge1], adjncy[edge1]);
+		int min2 = Math.min(sources[edge2], adjncy[edge2]);
+		if (min1 != min2) {
+			return min1 > min2;
+		}
+		return Math.max(sources[edge1], adjncy[edge1]) > Math.max(sources[edge2], adjncy[edge2]);
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+}
@@ -0,0 +1,122 @@
+package coarsening;
+
+import java.util.ArrayList;
+
+import structure.Graph;
+
+/*
+ * Triangle Edge Matching
+ * Visit graph Node at random Order
+ * Choose the unmatched neighbor of the visited node with the highest rating,
+ * the rating of an edge is its weight plus the number of triangles it is in
+ * (the neighbors shared by its ends), so edges inside dense clusters are preferred
+ * if none exist collapse the node by itself
+ *
+ * the neighbors of the visited node are marked with its index in a marker array,
+ * the triangles of an edge are the marked nodes in the row of the other end,
+ * so a visit scans the rows of the unmatched neighbors at most once, the rows of neighbors
+ * whose edge is too light to beat the best rating are skipped
+ *
+ * at most MAX_TRIANGLE_PROBES entries of the row of a neighbor are probed, the triangles of a longer row
+ * are estimated from the marked nodes in entries spread over it scaled to its length, so a visit scans
+ * at most MAX_TRIANGLE_PROBES times the degree of the node and a level is linear in the number of edges
+ * (stiffness matrices like bcsstk33 have rows of more than a hundred neighbors, as do the coarse levels
+ * of the mesh graphs), the rows of the mesh graphs are shorter and their triangles are exact
+ */
+
+public class TriangleEdgeMatching extends Matching {
+
+	// slots of the work arrays in the scratch buffers
+	private static final int PERMUTATION_SLOT = 0;
+	private static final int MATCH_SLOT = 1;
+	private static final int MARKER_SLOT = 2;
+	// entries of the row of a neighbor probed for the triangles of an edge
+	private static final int MAX_TRIANGLE_PROBES = 32;
+
+	@Override
+	public ArrayList<ArrayList<Integer>> coarse(Graph graph, int outputGraphNumOfNodes) {
+		return createNodesTree(this.coarseMap(graph, outputGraphNumOfNodes));
+	}
+
+	@Override
+	public int[] coarseMap(Graph graph, int outputGraphNumOfNodes) {
+		int numberOfNodes = graph.getNumberOfNodes();
+		int[] xadj = graph.getXadj();
+		int[] adjncy = graph.getAdjncy();
+		int[] adjwgt = graph.getAdjwgt();
+		int[] permutation = this.getRandomPermutation(numberOfNodes, PERMUTATION_SLOT);
+		int[] match = this.getScratchBuffers().getInts(MATCH_SLOT, numberOfNodes);
+		int[] marker = this.getScratchBuffers().getInts(MARKER_SLOT, numberOfNodes);
+		for (int i = 0; i < numberOfNodes; i++) {
+			match[i] = -1;
+			marker[i] = -1;
+		}
+
+		for (int k = 0; k < numberOfNodes; k++) {
+			int node = permutation[k];
+			if (match[node] >= 0) {
+				continue;
+			}
+			// rate the heaviest edge to an unmatched node first
+			int best = -1;
+			for (int j = xadj[node]; j < xadj[node + 1]; j++) {
+				int neighbor = adjncy[j];
+				if (match[neighbor] < 0 && neighbor != node && (best < 0 || adjwgt[j] > adjwgt[best])) {
+					best = j;
+				}
+			}
+			if (best >= 0) {
+				for (int j = xadj[node]; j < xadj[node + 1]; j++) {
+					marker[adjncy[j]] = node;
+				}
+				int degree = xadj[node + 1] - xadj[node];
+				long bestRating = rating(xadj, adjncy, adjwgt, marker, node, best);
+				// a neighbor shares less nodes than the smaller of the degrees,
+				// the triangles of an edge are not counted if they cannot beat the best rating
+				for (int j = xadj[node]; j < xadj[node + 1]; j++) {
+					int neighbor = adjncy[j];
+					if (j == best || match[neighbor] >= 0 || neighbor == node
+							|| adjwgt[j] + Math.min(degree, xadj[neighbor + 1] - xadj[neighbor]) - 1 <= bestRating) {
+						continue;
+					}
+					long rating = rating(xadj, adjncy, adjwgt, marker, node, j);
+					if (rating > bestRating) {
+						best = j;
+						bestRating = rating;
+					}
+				}
+			}
+			if (best < 0) {
+				match[node] = node;
+			} else {
+				match[node] = adjncy[best];
+				match[adjncy[best]] = node;
+			}
+		}
+		return createCoarseMap(match, permutation, numberOfNodes);
+	}
+
+	/*
+	 * This function returns the rating of the edge at adjacency position edge of the row of node,
+	 * the neighbors of node are marked with node,
+	 * the estimate of the triangles of a long row is at most the bound of the shared neighbors
+	 */
+	private static long rating(int[] xadj, int[] adjncy, int[] adjwgt, int[] marker, int node, int edge) {
+		int neighbor = adjncy[edge];
+		int neighborDegree = xadj[neighbor + 1] - xadj[neighbor];
+		int probes = Math.min(neighborDegree, MAX_TRIANGLE_PROBES);
+		// probes spread over the row, the neighbors of the rows are often ordered by index
+		int stride = neighborDegree / probes;
+		long triangles = 0;
+		for (int l = xadj[neighbor], k = 0; k < probes; l += stride, k++) {
+			if (marker[adjncy[l]] == node && adjncy[l] != node) {
+				triangles++;
+			}
+		}
+		if (probes < neighborDegree) {
+			triangles = Math.min(triangles * neighborDegree / probes,
+					Math.min(xadj[node + 1] - xadj[node], neighborDegree) - 1);
+		}
+		return adjwgt[edge] + triangles;
+	}
+}
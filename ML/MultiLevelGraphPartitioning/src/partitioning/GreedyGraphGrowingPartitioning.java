@@ -8,9 +8,7 @@ import java.util.Map;
 import java.util.Map.Entry;
 import java.util.Random;
 
-import structure.Edge;
 import structure.Graph;
-import structure.Node;
 import structure.Partition;
 import structure.PartitionGroup;
 import structure.Tuple;
@@ -141,7 +139,7 @@ public class GreedyGraphGrowingPartitioning extends Partitioning {
 				nextNodeID = this.getRandomNode(unselectedNodesIDs);
 			}
 			partition.addNode(nextNodeID);
-			partitionWeight += this.graph.getNode(nextNodeID).getNodeWeight();
+			partitionWeight += this.graph.getNodeWeight(nextNodeID);
 			// remove Node from free nodes Hash set
 			unselectedNodesIDs.remove(nextNodeID);
 			// after adding node to partition
@@ -163,14 +161,15 @@ public class GreedyGraphGrowingPartitioning extends Partitioning {
 			HashSet<Integer> unselectedNodesIDs, Partition partition) {
 
 		// get the nodes neighbors
-		Node cur = this.graph.getNode(nodeID);
-		Node[] curNeighbors = cur.getNeighbors();
-		ArrayList<Integer> unselectedNeighbors = new ArrayList<Integer>(curNeighbors.length);
+		int[] xadj = this.graph.getXadj();
+		int[] adjncy = this.graph.getAdjncy();
+		int nodeIndex = nodeID - 1;
+		ArrayList<Integer> unselectedNeighbors = new ArrayList<Integer>(xadj[nodeIndex + 1] - xadj[nodeIndex]);
 
 		// filter neighbors selected in previous partitions
-		for (int i = 0; i < curNeighbors.length; i++) {
-			if (unselectedNodesIDs.contains(curNeighbors[i].getNodeID())) {
-				unselectedNeighbors.add(curNeighbors[i].getNodeID());
+		for (int i = xadj[nodeIndex]; i < xadj[nodeIndex + 1]; i++) {
+			if (unselectedNodesIDs.contains(adjncy[i] + 1)) {
+				unselectedNeighbors.add(adjncy[i] + 1);
 			}
 		}
 
@@ -199,9 +198,9 @@ public class GreedyGraphGrowingPartitioning extends Partitioning {
 					continue;
 				} else {
 					int neighborID = neighborsGain.get(i).x;
-					Edge edg = this.graph.getEdge(nodeID, neighborID);
-					if (edg != null) {
-						int gain = neighborsGain.get(i).y - edg.getWeight();
+					int edgeWeight = this.graph.getEdgeWeight(nodeID, neighborID);
+					if (edgeWeight != 0) {
+						int gain = neighborsGain.get(i).y - edgeWeight;
 						Tuple<Integer, Integer> tup = new Tuple<Integer, Integer>(neighborID, gain);
 						neighborsGain.set(i, tup);
 						// store the gain and its index if it was minimum
@@ -241,18 +240,18 @@ public class GreedyGraphGrowingPartitioning extends Partitioning {
 	private int getNodeGain(int nodeID, Partition partition) {
 		int nodeOutsideEdgesWeight = 0;
 		int nodeInsideEdgesWeight = 0;
-		Node curNode = this.graph.getNode(nodeID);
-		Node[] curNeighbors = curNode.getNeighbors();
+		int[] xadj = this.graph.getXadj();
+		int[] adjncy = this.graph.getAdjncy();
+		int[] adjwgt = this.graph.getAdjwgt();
+		int nodeIndex = nodeID - 1;
 
 		// get weights of edges inside partition
 		// and edges outside of the partition
-		for (int i = 0; i < curNeighbors.length; i++) {
-			if (partition.containsNode(curNeighbors[i].getNodeID())) {
-				nodeInsideEdgesWeight += this.graph.getEdge(nodeID, curNeighbors[i].getNodeID()).getWeight();
+		for (int i = xadj[nodeIndex]; i < xadj[nodeIndex + 1]; i++) {
+			if (partition.containsNode(adjncy[i] + 1)) {
+				nodeInsideEdgesWeight += adjwgt[i];
 			} else {
-				Edge edge = this.graph.getEdge(nodeID, curNeighbors[i].getNodeID());
-				nodeOutsideEdgesWeight += edge.getWeight();
-
+				nodeOutsideEdgesWeight += adjwgt[i];
 			}
 		}
 
@@ -14,7 +14,7 @@ public abstract class Partitioning {
 		this.numberOfPartitions = numberOfPartitions;
 		this.numberOfTrials = numberOfTrials;
 		this.imbalanceRatio = imbalanceRatio;
-		int totalNodesWeight = this.graph.getTotalNodesWeights();
+		long totalNodesWeight = this.graph.getTotalNodesWeights();
 		float exactPartitionWeight = (float) totalNodesWeight / numberOfPartitions;
 		this.maxPartitionWeight = (int) (Math.ceil((double) totalNodesWeight / numberOfPartitions)
 				* (1 + imbalanceRatio));
@@ -23,10 +23,8 @@ import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
 
-import structure.Edge;
 import structure.Graph;
 import structure.KLPair;
-import structure.Node;
 import structure.Partition;
 import structure.Tuple;
 
@@ -54,7 +52,7 @@ public class KLRefinement {
 		this.maxSwaps = maxSwaps;
 		this.minGainAllowed = minGainAllowed;
 		this.numberOfSwapsApplied = 0;
-		int totalGraphWeight = this.graph.getTotalNodesWeights();
+		long totalGraphWeight = this.graph.getTotalNodesWeights();
 		this.numberOfPartitions = partitions.size();
 		float exactPartitionWeight = (float) totalGraphWeight
 				/ this.numberOfPartitions;
@@ -104,8 +102,8 @@ public class KLRefinement {
 		// update partitions
 		int node1ID = pairWithMaxGain.getSourceID();
 		int node2ID = pairWithMaxGain.getDestinationID();
-		Node[] neighbors1 = this.graph.getNode(node1ID).getNeighbors();
-		Node[] neighbors2 = this.graph.getNode(node2ID).getNeighbors();
+		int[] xadj = this.graph.getXadj();
+		int[] adjncy = this.graph.getAdjncy();
 		int partition1ID = this.getNodePartition(node1ID);
 		int partition2ID = this.getNodePartition(node2ID);
 		Partition partition1 = this.refinedPartitions.get(partition1ID-1);
@@ -149,16 +147,16 @@ public class KLRefinement {
 		// we will only recalculate edge cut gain
 		// as balance gain will be calculated in the next steps for a superset
 		// of pairs
-		for (int i = 0; i < neighbors1.length; i++) {
-			int neighborID = neighbors1[i].getNodeID();
+		for (int i = xadj[node1ID - 1]; i < xadj[node1ID]; i++) {
+			int neighborID = adjncy[i] + 1;
 			if (nodesEdgeCutUpdated.contains(neighborID)) {
 				continue;
 			}
 			this.recalculateEdgeCutOfPairsContain(neighborID);
 			nodesEdgeCutUpdated.add(neighborID);
 		}
-		for (int i = 0; i < neighbors2.length; i++) {
-			int neighborID = neighbors2[i].getNodeID();
+		for (int i = xadj[node2ID - 1]; i < xadj[node2ID]; i++) {
+			int neighborID = adjncy[i] + 1;
 			if (nodesEdgeCutUpdated.contains(neighborID)) {
 				continue;
 			}
@@ -193,9 +191,8 @@ public class KLRefinement {
 	}
 
 	private void recalculateBalanceOfPairsContain(int nodeID) {
-		Node[] allNodes = this.graph.getNodes();
-		for (int i = 0; i < allNodes.length; i++) {
-			int node2ID = allNodes[i].getNodeID();
+		for (int i = 0; i < this.graph.getNumberOfNodes(); i++) {
+			int node2ID = i + 1;
 			int min = Math.min(nodeID, node2ID);
 			int max = Math.max(nodeID, node2ID);
 			Tuple<Integer, Integer> tuple = new Tuple<Integer, Integer>(min,
@@ -220,9 +217,8 @@ public class KLRefinement {
 	}
 
 	private void recalculateEdgeCutOfPairsContain(int nodeID) {
-		Node[] allNodes = this.graph.getNodes();
-		for (int i = 0; i < allNodes.length; i++) {
-			int node2ID = allNodes[i].getNodeID();
+		for (int i = 0; i < this.graph.getNumberOfNodes(); i++) {
+			int node2ID = i + 1;
 			int min = Math.min(nodeID, node2ID);
 			int max = Math.max(nodeID, node2ID);
 			Tuple<Integer, Integer> tuple = new Tuple<Integer, Integer>(min,
@@ -312,16 +308,12 @@ public class KLRefinement {
 		int node2ID = swappedPair.getDestinationID();
 		int oldPartition1ID = this.getNodePartition(node2ID); // new partition2
 		int oldPartition2ID = this.getNodePartition(node1ID); // new partition1
-		Node[] neighbors1 = this.graph.getNode(node1ID).getNeighbors();
-		Node[] neighbors2 = this.graph.getNode(node2ID).getNeighbors();
+		int[] xadj = this.graph.getXadj();
+		int[] adjncy = this.graph.getAdjncy();
 		HashSet<Integer> nodesProcessed = new HashSet<Integer>(
-				neighbors1.length + 2);
+				xadj[node1ID] - xadj[node1ID - 1] + 2);
 		// check if there is edge between node1 and node2
-		Edge edge12 = this.graph.getEdge(node1ID, node2ID);
-		int edge12Weight = 0;
-		if (edge12 != null) {
-			edge12Weight = edge12.getWeight();
-		}
+		int edge12Weight = this.graph.getEdgeWeight(node1ID, node2ID);
 		// update the matrix
 		this.nodesEdgesWeight_In_to_Partitions[node1ID - 1][oldPartition1ID - 1] += edge12Weight;
 		this.nodesEdgesWeight_In_to_Partitions[node1ID - 1][oldPartition2ID - 1] -= edge12Weight;
@@ -332,37 +324,27 @@ public class KLRefinement {
 		// update neighbors of the pair
 		// beware that nodes are already swapped
 		// loop node1 neighbors
-		for (int i = 0; i < neighbors1.length; i++) {
-			int neighborID = neighbors1[i].getNodeID();
+		for (int i = xadj[node1ID - 1]; i < xadj[node1ID]; i++) {
+			int neighborID = adjncy[i] + 1;
 			// if the neighbor processed before, do not process it again
 			if (nodesProcessed.contains(neighborID)) {
 				continue;
 			}
-			Edge edge13 = this.graph.getEdge(node1ID, neighborID);
-			Edge edge23 = this.graph.getEdge(node2ID, neighborID);
-			int edge13Weight = edge13.getWeight();
-			int edge23Weight = 0;
-			if (edge23 != null) {
-				edge23Weight = edge23.getWeight();
-			}
+			int edge13Weight = this.graph.getEdgeWeight(node1ID, neighborID);
+			int edge23Weight = this.graph.getEdgeWeight(node2ID, neighborID);
 			this.nodesEdgesWeight_In_to_Partitions[neighborID - 1][oldPartition1ID - 1] += (edge23Weight - edge13Weight);
 			this.nodesEdgesWeight_In_to_Partitions[neighborID - 1][oldPartition2ID - 1] += (edge13Weight - edge23Weight);
 			nodesProcessed.add(neighborID);
 		}
 		// loop node2 neighbors
-		for (int i = 0; i < neighbors2.length; i++) {
-			int neighborID = neighbors2[i].getNodeID();
+		for (int i = xadj[node2ID - 1]; i < xadj[node2ID]; i++) {
+			int neighborID = adjncy[i] + 1;
 			// if the neighbor processed before, do not process it again
 			if (nodesProcessed.contains(neighborID)) {
 				continue;
 			}
-			Edge edge14 = this.graph.getEdge(node1ID, neighborID);
-			Edge edge24 = this.graph.getEdge(node2ID, neighborID);
-			int edge14Weight = 0;
-			int edge24Weight = edge24.getWeight();
-			if (edge14 != null) {
-				edge14Weight = edge14.getWeight();
-			}
+			int edge14Weight = this.graph.getEdgeWeight(node1ID, neighborID);
+			int edge24Weight = this.graph.getEdgeWeight(node2ID, neighborID);
 			this.nodesEdgesWeight_In_to_Partitions[neighborID - 1][oldPartition1ID - 1] += (edge24Weight - edge14Weight);
 			this.nodesEdgesWeight_In_to_Partitions[neighborID - 1][oldPartition2ID - 1] += (edge14Weight - edge24Weight);
 		}
@@ -409,7 +391,9 @@ public class KLRefinement {
 	private int[][] getNodesEdgesWeightToPartition() {
 		int[][] nodesEdgesWeight_In_to_Partitions = new int[this.graph
 				.getNumberOfNodes()][this.numberOfPartitions];
-		;
+		int[] xadj = this.graph.getXadj();
+		int[] adjncy = this.graph.getAdjncy();
+		int[] adjwgt = this.graph.getAdjwgt();
 		// loop through partitions
 		for (int i = 0; i < this.refinedPartitions.size(); i++) {
 			// iterate nodes in partitions
@@ -418,17 +402,14 @@ public class KLRefinement {
 			;
 			while (it.hasNext()) {
 				int curNodeID = it.next();
-				Node curNode = this.graph.getNode(curNodeID);
-				Node[] curNeighbors = curNode.getNeighbors();
 				// loop through neighbors
 				// check if it exist in this partition add
 				// the weight of edge between them as a gain
-				for (int j = 0; j < curNeighbors.length; j++) {
-					int curNeighborID = curNeighbors[j].getNodeID();
+				for (int j = xadj[curNodeID - 1]; j < xadj[curNodeID]; j++) {
+					int curNeighborID = adjncy[j] + 1;
 					int neighborPartitionID = this
 							.getNodePartition(curNeighborID);
-					nodesEdgesWeight_In_to_Partitions[curNodeID - 1][neighborPartitionID - 1] += this.graph
-							.getEdge(curNodeID, curNeighborID).getWeight();
+					nodesEdgesWeight_In_to_Partitions[curNodeID - 1][neighborPartitionID - 1] += adjwgt[j];
 				}
 			}
 		}
@@ -450,14 +431,12 @@ public class KLRefinement {
 				
 				while (partition1It.hasNext()) {
 					int node1ID = partition1It.next();
-					int node1Weight = this.graph.getNode(node1ID)
-							.getNodeWeight();
+					int node1Weight = this.graph.getNodeWeight(node1ID);
 					Iterator<Integer> partition2It = partition2.getNodeIDs()
 							.iterator();
 					while (partition2It.hasNext()) {
 						int node2ID = partition2It.next();
-						int node2Weight = this.graph.getNode(node2ID)
-								.getNodeWeight();
+						int node2Weight = this.graph.getNodeWeight(node2ID);
 
 						// calculate edgecut gain
 						int edgeCutGain = this.getPairEdgeCutGain(node1ID,
@@ -498,8 +477,8 @@ public class KLRefinement {
 				.getPartitionWeight();
 		int partition2Weight = this.refinedPartitions.get(partition2ID - 1)
 				.getPartitionWeight();
-		int node1Weight = this.graph.getNode(node1ID).getNodeWeight();
-		int node2Weight = this.graph.getNode(node2ID).getNodeWeight();
+		int node1Weight = this.graph.getNodeWeight(node1ID);
+		int node2Weight = this.graph.getNodeWeight(node2ID);
 		int partition1NewWeight = partition1Weight + node2Weight - node1Weight;
 		int partition2NewWeight = partition2Weight + node1Weight - node2Weight;
 		int partition1OldImbalance = 0;
@@ -523,11 +502,7 @@ public class KLRefinement {
 	 */
 	private int getPairEdgeCutGain(int node1ID, int partition1ID, int node2ID,
 			int partition2ID) {
-		Edge edge12 = this.graph.getEdge(node1ID, node2ID);
-		int edge12Weight = 0;
-		if (edge12 != null) {
-			edge12Weight = edge12.getWeight();
-		}
+		int edge12Weight = this.graph.getEdgeWeight(node1ID, node2ID);
 		int edgeCutGain = this.nodesEdgesWeight_In_to_Partitions[node1ID-1][partition2ID-1];
 		edgeCutGain += this.nodesEdgesWeight_In_to_Partitions[node2ID-1][partition1ID-1];
 		edgeCutGain -= 2 * edge12Weight;
@@ -3,10 +3,8 @@ package refinement;
 import java.util.HashMap;
 import java.util.Iterator;
 
-import structure.Edge;
 import structure.Graph;
 import structure.KLPair;
-import structure.Node;
 import structure.Partition;
 import structure.PartitionGroup;
 
@@ -29,7 +27,7 @@ public class NaiiveKLRefinement {
 		this.maxSwaps = maxSwaps;
 		this.minGainAllowed = minGainAllowed;
 		this.numberOfSwapsApplied = 0;
-		int totalGraphWeight = this.graph.getTotalNodesWeights();
+		long totalGraphWeight = this.graph.getTotalNodesWeights();
 		this.numberOfPartitions = partsGroup.getPartitionNumber();
 		float exactPartitionWeight = (float) totalGraphWeight / this.numberOfPartitions;
 		this.maxPartitionWeight = (int) Math.ceil((1 + imbalanceRatio) * (exactPartitionWeight));
@@ -146,8 +144,8 @@ public class NaiiveKLRefinement {
 		int partition2ID = this.nodePartitionMap.get(node2ID);
 		int partition1Weight = this.refinedPartitions.getPartition(partition1ID).getPartitionWeight();
 		int partition2Weight = this.refinedPartitions.getPartition(partition2ID).getPartitionWeight();
-		int node1Weight = this.graph.getNode(node1ID).getNodeWeight();
-		int node2Weight = this.graph.getNode(node2ID).getNodeWeight();
+		int node1Weight = this.graph.getNodeWeight(node1ID);
+		int node2Weight = this.graph.getNodeWeight(node2ID);
 		int partition1NewWeight = partition1Weight + node2Weight - node1Weight;
 		int partition2NewWeight = partition2Weight + node1Weight - node2Weight;
 		int partition1OldImbalance = 0;
@@ -180,12 +178,14 @@ public class NaiiveKLRefinement {
 		final int partition1ID = this.nodePartitionMap.get(node1ID);
 		final int partition2ID = this.nodePartitionMap.get(node2ID);
 		int gain = 0;
+		int[] xadj = this.graph.getXadj();
+		int[] adjncy = this.graph.getAdjncy();
+		int[] adjwgt = this.graph.getAdjwgt();
 		// gain if node1 transferred to partition2
-		Node[] node1Neighbors = this.graph.getNode(node1ID).getNeighbors();
-		for (int i = 0; i < node1Neighbors.length; i++) {
-			int neighborID = node1Neighbors[i].getNodeID();
+		for (int i = xadj[node1ID - 1]; i < xadj[node1ID]; i++) {
+			int neighborID = adjncy[i] + 1;
 			int neighborPartitionID = this.nodePartitionMap.get(neighborID);
-			int edgeWeight = this.graph.getEdge(node1ID, neighborID).getWeight();
+			int edgeWeight = adjwgt[i];
 			if (neighborPartitionID == partition1ID) {
 				gain -= edgeWeight;
 			} else if (neighborPartitionID == partition2ID) {
@@ -194,11 +194,10 @@ public class NaiiveKLRefinement {
 		}
 
 		// gain if node2 transferred to partition1
-		Node[] node2Neighbors = this.graph.getNode(node2ID).getNeighbors();
-		for (int i = 0; i < node2Neighbors.length; i++) {
-			int neighborID = node2Neighbors[i].getNodeID();
+		for (int i = xadj[node2ID - 1]; i < xadj[node2ID]; i++) {
+			int neighborID = adjncy[i] + 1;
 			int neighborPartitionID = this.nodePartitionMap.get(neighborID);
-			int edgeWeight = this.graph.getEdge(node2ID, neighborID).getWeight();
+			int edgeWeight = adjwgt[i];
 			if (neighborPartitionID == partition1ID) {
 				gain += edgeWeight;
 			} else if (neighborPartitionID == partition2ID) {
@@ -206,11 +205,7 @@ public class NaiiveKLRefinement {
 			}
 		}
 		// get edge between node1 and node2 if exist
-		Edge edge12 = this.graph.getEdge(node1ID, node2ID);
-		if (edge12 != null) {
-			int edgeWeight = edge12.getWeight();
-			gain -= 2 * edgeWeight;
-		}
+		gain -= 2 * this.graph.getEdgeWeight(node1ID, node2ID);
 		return gain;
 	}
 
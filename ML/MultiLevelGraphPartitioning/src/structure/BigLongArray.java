@@ -0,0 +1,112 @@
+package structure;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.util.Arrays;
+
+/*
+ * Array of longs indexed by long, stored off heap in chunks of direct buffers
+ * so it can hold more than 2^31 values
+ *
+ * index i is in chunk i >> chunkShift at position i & (chunkSize - 1),
+ * only the last chunk is smaller than chunkSize
+ *
+ * different threads can write different indices once the chunks are allocated
+ * (by the public constructor), the bulk functions do not change the position of the shared chunks
+ */
+public class BigLongArray {
+
+	// 2^27 longs, 1GB per chunk
+	private static final int CHUNK_SHIFT = 27;
+
+	private final int chunkShift;
+	private final int chunkSize;
+	private final int chunkMask;
+	private final LongBuffer[] chunks;
+	private final long length;
+
+	public BigLongArray(long length) {
+		this(length, CHUNK_SHIFT, true);
+	}
+
+	/*
+	 * if allocateChunks is false each chunk is allocated the first time it is written,
+	 * the values of a chunk that was not written are 0 like the ones of a new chunk,
+	 * such an array can only be written by one thread
+	 */
+	BigLongArray(long length, int chunkShift, boolean allocateChunks) {
+		this.chunkShift = chunkShift;
+		this.chunkSize = 1 << chunkShift;
+		this.chunkMask = this.chunkSize - 1;
+		this.length = length;
+		int numberOfChunks = (int) ((length + this.chunkMask) >>> chunkShift);
+		this.chunks = new LongBuffer[numberOfChunks];
+		if (allocateChunks) {
+			for (int i = 0; i < numberOfChunks; i++) {
+				this.getChunk(i);
+			}
+		}
+	}
+
+	/*
+	 * This function returns the chunk to write, it is allocated if it is not yet
+	 */
+	private LongBuffer getChunk(int chunk) {
+		if (this.chunks[chunk] == null) {
+			int size = (int) Math.min(this.chunkSize, this.length - ((long) chunk << this.chunkShift));
+			this.chunks[chunk] = ByteBuffer.allocateDirect(8 * size).order(ByteOrder.nativeOrder()).asLongBuffer();
+		}
+		return this.chunks[chunk];
+	}
+
+	public long get(long index) {
+		LongBuffer chunk = this.chunks[(int) (index >>> this.chunkShift)];
+		return chunk == null ? 0 : chunk.get((int) index & this.chunkMask);
+	}
+
+	public void set(long index, long value) {
+		this.getChunk((int) (index >>> this.chunkShift)).put((int) index & this.chunkMask, value);
+	}
+
+	/*
+	 * copies count values starting at index to the array values
+	 */
+	public void get(long index, long[] values, int offset, int count) {
+		while (count > 0) {
+			LongBuffer chunk = this.chunks[(int) (index >>> this.chunkShift)];
+			int position = (int) index & this.chunkMask;
+			int size = Math.min(count, this.chunkSize - position);
+			if (chunk == null) {
+				Arrays.fill(values, offset, offset + size, 0);
+			} else {
+				chunk = chunk.duplicate();
+				chunk.position(position);
+				chunk.get(values, offset, size);
+			}
+			index += size;
+			offset += size;
+			count -= size;
+		}
+	}
+
+	/*
+	 * copies count values of the array values to this array starting at index
+	 */
+	public void set(long index, long[] values, int offset, int count) {
+		while (count > 0) {
+			LongBuffer chunk = this.getChunk((int) (index >>> this.chunkShift)).duplicate();
+			int position = (int) index & this.chunkMask;
+			int size = Math.min(count, this.chunkSize - position);
+			chunk.position(position);
+			chunk.put(values, offset, size);
+			index += size;
+			offset += size;
+			count -= size;
+		}
+	}
+
+	public long length() {
+		return length;
+	}
+}
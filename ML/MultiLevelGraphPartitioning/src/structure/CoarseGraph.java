@@ -2,208 +2,425 @@ package structure;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.HashMap;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.concurrent.Callable;
 
+/*
+ * The coarse graph is built from its parent graph and a coarse map (cmap),
+ * cmap[i] is the index of the coarse node that contains the parent node with index i
+ *
+ * the contraction is linear in the size of the parent graph:
+ * the childs of each coarse node are grouped with a counting sort on cmap,
+ * then the edges of the childs are merged into one adjacency row
+ * with a dense accumulator indexed by coarse node
+ *
+ * with parallelism more than 1 the coarse nodes are split into ranges,
+ * each range is contracted by its own thread into a block of adjacency arrays
+ * and the blocks are joined with prefix sums, the result does not depend
+ * on the number of threads since every row is merged in the same order
+ *
+ * the weight of the dropped edges inside each coarse node is added to the internal edge weights
+ * of its childs, so each node knows the weight of the edges between the original nodes it contains,
+ * and the number of these nodes is the sum of the counts of its childs
+ */
 public class CoarseGraph extends Graph {
 
+	// a range is not split if it has less coarse nodes
+	private static final int MIN_BLOCK_SIZE = 1 << 12;
+	// slots of the work arrays in the scratch buffers, the block slots are repeated for each block
+	private static final int CHILDS_XADJ_SLOT = 0;
+	private static final int CHILDS_SLOT = 1;
+	private static final int NEXT_SLOT = 2;
+	private static final int MARKER_SLOT = 3;
+	private static final int ROW_SLOT = 4;
+	private static final int BLOCK_XADJ_SLOT = 5;
+	private static final int BLOCK_ADJNCY_SLOT = 6;
+	private static final int BLOCK_ADJWGT_SLOT = 7;
+	private static final int BLOCK_VWGT_SLOT = 8;
+	private static final int BLOCK_SLOTS = 6;
+
 	private Graph parentGraph;
+	private int[] cmap;
+	// childs of each coarse node, created the first time they are requested
+	// if the graph was not created from a nodes tree
 	private ArrayList<ArrayList<Integer>> nodesTree;
-	// reversed map
-	// this map point from child node to parent node
-	// it will be O(V) space
-	// and will help to coarse the graph in linear time
-	private HashMap<Integer, Integer> reversedMap;
-	private ArrayList<Edge> edgesList;
 
 	public CoarseGraph(Graph parentGraph, ArrayList<ArrayList<Integer>> nodesTree) {
+		this(parentGraph, nodesTree, false);
+	}
+
+	/*
+	 * if offHeap is true, the adjacency arrays of the coarse graph are written
+	 * directly off heap and stay there until they are accessed,
+	 * the parent graph is read on heap
+	 */
+	public CoarseGraph(Graph parentGraph, ArrayList<ArrayList<Integer>> nodesTree, boolean offHeap) {
+		this(parentGraph, createCoarseMap(nodesTree, parentGraph.getNumberOfNodes()), nodesTree.size(), offHeap);
+		this.nodesTree = nodesTree;
+	}
+
+	public CoarseGraph(Graph parentGraph, int[] cmap) {
+		this(parentGraph, cmap, getNumberOfCoarseNodes(cmap), false);
+	}
+
+	public CoarseGraph(Graph parentGraph, int[] cmap, boolean offHeap) {
+		this(parentGraph, cmap, getNumberOfCoarseNodes(cmap), offHeap);
+	}
+
+	/*
+	 * the contraction runs on parallelism threads
+	 */
+	public CoarseGraph(Graph parentGraph, int[] cmap, boolean offHeap, int parallelism) {
+		this(parentGraph, cmap, offHeap, parallelism, new ScratchBuffers());
+	}
+
+	/*
+	 * the work arrays of the contraction are taken from scratchBuffers,
+	 * so the contraction of a level allocates only the arrays of the coarse graph
+	 */
+	public CoarseGraph(Graph parentGraph, int[] cmap, boolean offHeap, int parallelism,
+			ScratchBuffers scratchBuffers) {
+		this(parentGraph, cmap, getNumberOfCoarseNodes(cmap), offHeap, parallelism, scratchBuffers);
+	}
+
+	private CoarseGraph(Graph parentGraph, int[] cmap, int numberOfNodes, boolean offHeap) {
+		this(parentGraph, cmap, numberOfNodes, offHeap, 1, new ScratchBuffers());
+	}
+
+	private CoarseGraph(Graph parentGraph, int[] cmap, int numberOfNodes, boolean offHeap, int parallelism,
+			ScratchBuffers scratchBuffers) {
 		super();
 		this.parentGraph = parentGraph;
-		this.nodesTree = nodesTree;
-		this.numberOfNodes = this.nodesTree.size();
-		this.nodes = new CoarseNode[numberOfNodes];
-		this.edgeIndex = 0;
-		this.nodesEdgesMap = new HashMap<Tuple<Integer, Integer>, Edge>();
-		this.edgesList = new ArrayList<Edge>();
-		// create reversedMap
-		this.createReversedMap();
-//		System.out.println("start");
-//		for (int i = 0; i < nodesTree.size(); i++) {
-//			for (int j = 0; j < nodesTree.get(i).size(); j++) {
-//				System.out.print(nodesTree.get(i).get(j)+",");
-//			}
-//			System.out.println();
-//		}
-
-		// create nodes
-		int curNodeID;
-		for (int i = 0; i < this.numberOfNodes; i++) {
-			curNodeID = i + 1;
-			this.storeNode(curNodeID);
-		}
-		// initialize shuffled nodes
-		this.shuffeledNodesIDs = new int[this.numberOfNodes];
-		for (int i = 0; i < this.nodes.length; i++) {
-			this.shuffeledNodesIDs[i] = i + 1;
-		}
-		this.edges = new Edge[this.edgesList.size()];
-		for (int i = 0; i < this.edgesList.size(); i++) {
-			this.edges[i] = this.edgesList.get(i);
-		}
-		// Store Edges and sort it by weight
-		Arrays.sort(this.edges);
-	}
-
-	private void storeNode(int curNodeID) {
-		int curNodeWeight;
-		int[] curNeighborsIDs;
-		// calculate Node weight
-		curNodeWeight = this.getNodeWeight(curNodeID);
-		// find Node neighbors
-		curNeighborsIDs = this.getNodeNeighbors(curNodeID);
-		// create Neighbors Nodes
-		Node[] neighbors = new CoarseNode[curNeighborsIDs.length];
-		Edge[] neighborsEdges = new CoarseEdge[curNeighborsIDs.length];
-		Node currentNode;
-		HashMap<Integer, Tuple<Node, Edge>> neighborsMap = new HashMap<Integer, Tuple<Node, Edge>>(
-				curNeighborsIDs.length);
-		for (int j = 0; j < curNeighborsIDs.length; j++) {
-			Node neighborNode;
-			Edge neighborEdge;
-			int neighborEdgeWeight;
-			// check if Node was previously created
-			if (isNodeCreated(curNeighborsIDs[j])) {
-				neighborNode = this.nodes[curNeighborsIDs[j] - 1];
-			} else {
-				neighborNode = new CoarseNode(curNeighborsIDs[j], this.getNodeWeight(curNeighborsIDs[j]));
-				this.nodes[curNeighborsIDs[j] - 1] = neighborNode;
+		this.cmap = cmap;
+		this.contract(numberOfNodes, offHeap, parallelism, scratchBuffers);
+	}
+
+	/*
+	 * This function returns the coarse map of a nodes tree,
+	 * coarse node i + 1 contains the nodes IDs of nodesTree.get(i)
+	 */
+	public static int[] createCoarseMap(ArrayList<ArrayList<Integer>> nodesTree, int numberOfParentNodes) {
+		int[] cmap = new int[numberOfParentNodes];
+		for (int i = 0; i < nodesTree.size(); i++) {
+			ArrayList<Integer> childs = nodesTree.get(i);
+			for (int j = 0; j < childs.size(); j++) {
+				cmap[childs.get(j) - 1] = i;
 			}
+		}
+		return cmap;
+	}
+
+	private static int getNumberOfCoarseNodes(int[] cmap) {
+		int numberOfNodes = 0;
+		for (int i = 0; i < cmap.length; i++) {
+			numberOfNodes = Math.max(numberOfNodes, cmap[i] + 1);
+		}
+		return numberOfNodes;
+	}
 
-			neighbors[j] = neighborNode;
-			if (isEdgeCreated(curNodeID, curNeighborsIDs[j])) {
-				neighborEdge = getEdge(curNodeID, curNeighborsIDs[j]);
-			} else {
-				neighborEdgeWeight = this.calculateEdgeWeight(curNodeID, curNeighborsIDs[j]);
-				neighborEdge = new CoarseEdge(curNodeID, curNeighborsIDs[j], neighborEdgeWeight);
+	private void contract(int numberOfNodes, boolean offHeap, int parallelism, ScratchBuffers scratchBuffers) {
+		int[] parentXadj = this.parentGraph.getXadj();
+		int parentNumberOfNodes = this.parentGraph.getNumberOfNodes();
+
+		// group the childs of each coarse node
+		int[] childsXadj = scratchBuffers.getInts(CHILDS_XADJ_SLOT, numberOfNodes + 1);
+		Arrays.fill(childsXadj, 0, numberOfNodes + 1, 0);
+		for (int i = 0; i < parentNumberOfNodes; i++) {
+			childsXadj[this.cmap[i] + 1]++;
+		}
+		for (int i = 0; i < numberOfNodes; i++) {
+			childsXadj[i + 1] += childsXadj[i];
+		}
+		int[] childs = scratchBuffers.getInts(CHILDS_SLOT, parentNumberOfNodes);
+		int[] next = scratchBuffers.getInts(NEXT_SLOT, numberOfNodes);
+		System.arraycopy(childsXadj, 0, next, 0, numberOfNodes);
+		for (int i = 0; i < parentNumberOfNodes; i++) {
+			childs[next[this.cmap[i]]++] = i;
+		}
+
+		// written by the blocks for their ranges of coarse nodes
+		this.internalEdgeWeights = new long[numberOfNodes];
+		this.originalNodeCounts = new int[numberOfNodes];
+
+		// split the coarse nodes into ranges with about the same number of parent edges
+		int numberOfBlocks = Math.max(1, Math.min(parallelism, numberOfNodes / MIN_BLOCK_SIZE));
+		ContractionBlock[] blocks = new ContractionBlock[numberOfBlocks];
+		long parentAdjacencyLength = parentXadj[parentNumberOfNodes];
+		long adjacencyLength = 0;
+		int blockStart = 0;
+		int blockAdjacencyLength = 0;
+		int block = 0;
+		for (int i = 0; i < numberOfNodes; i++) {
+			for (int k = childsXadj[i]; k < childsXadj[i + 1]; k++) {
+				blockAdjacencyLength += parentXadj[childs[k] + 1] - parentXadj[childs[k]];
 			}
-			neighborsEdges[j] = neighborEdge;
-			neighborsMap.put(curNeighborsIDs[j], new Tuple<Node, Edge>(neighbors[j], neighborsEdges[j]));
-			// Add edge to Graph
-			// make sure each edge is added only once
-			if (curNodeID < curNeighborsIDs[j]) {
-				this.nodesEdgesMap.put(new Tuple<Integer, Integer>(curNodeID, curNeighborsIDs[j]), neighborEdge);
-				this.edgesList.add(neighborEdge);
+			if (block < numberOfBlocks - 1 && (adjacencyLength + blockAdjacencyLength) * numberOfBlocks
+					>= parentAdjacencyLength * (block + 1)) {
+				blocks[block] = new ContractionBlock(blockStart, i + 1, blockAdjacencyLength, numberOfNodes,
+						childsXadj, childs, scratchBuffers, block);
+				block++;
+				adjacencyLength += blockAdjacencyLength;
+				blockStart = i + 1;
+				blockAdjacencyLength = 0;
 			}
+		}
+		blocks[block] = new ContractionBlock(blockStart, numberOfNodes, blockAdjacencyLength, numberOfNodes,
+				childsXadj, childs, scratchBuffers, block);
+		block++;
+		// a few heavy coarse nodes can fill the ranges early
+		blocks = Arrays.copyOf(blocks, block);
+
+		if (blocks.length == 1) {
+			blocks[0].call();
+			this.join(blocks, numberOfNodes, offHeap, false);
+		} else {
+			ParallelTasks.invokeAll(Arrays.<Callable<Void>>asList(blocks));
+			this.join(blocks, numberOfNodes, offHeap, true);
+		}
+		if (this.parentGraph.constraintsWeights != null) {
+			// vwgt already holds the sums of the first constraint, so an off heap graph stays off heap
+			this.numberOfConstraints = this.parentGraph.numberOfConstraints;
+			this.constraintsWeights = this.calculateConstraintsWeights(childsXadj, childs);
+		}
+	}
 
+	/*
+	 * This function joins the adjacency blocks in the order of their ranges,
+	 * the offset of each block in the coarse adjacency arrays is the prefix sum
+	 * of the lengths of the blocks before it
+	 * if offHeap is true the blocks are copied to off heap storage of the exact size,
+	 * the coarse graph has no heap arrays
+	 */
+	private void join(final ContractionBlock[] blocks, int numberOfNodes, boolean offHeap, boolean parallel) {
+		long adjacencyLength = 0;
+		final long[] offsets = new long[blocks.length];
+		for (int b = 0; b < blocks.length; b++) {
+			offsets[b] = adjacencyLength;
+			adjacencyLength += blocks[b].xadj[blocks[b].end - blocks[b].start];
 		}
-		// create current Node
-		if (isNodeCreated(curNodeID)) {
-			currentNode = this.nodes[curNodeID - 1];
-			currentNode.setNeighbors(neighbors);
-			currentNode.setNeighborsEdges(edges);
-			currentNode.setNeighborsMap(neighborsMap);
+		final OffHeapGraphStorage storage;
+		final int[] xadj;
+		final int[] adjncy;
+		final int[] adjwgt;
+		final int[] vwgt;
+		if (offHeap) {
+			storage = new OffHeapGraphStorage(numberOfNodes, adjacencyLength);
+			xadj = null;
+			adjncy = null;
+			adjwgt = null;
+			vwgt = null;
 		} else {
-			currentNode = new CoarseNode(curNodeID, curNodeWeight, neighbors, neighborsEdges, neighborsMap);
-			this.nodes[curNodeID - 1] = currentNode;
-		}
-	}
-
-	private int[] getNodeNeighbors(int curNodeID) {
-		HashSet<Integer> curNeighbors = new HashSet<Integer>();
-		int[] curNeighborsArray;
-		int curNodeIndex = curNodeID - 1;
-		int curNeighbor;
-		int childNodeID;
-		Node childNode;
-		Node[] childNodeNeighbors;
-		for (int i = 0; i < this.nodesTree.get(curNodeIndex).size(); i++) {
-			childNodeID = this.nodesTree.get(curNodeIndex).get(i);
-			childNode = this.parentGraph.getNode(childNodeID);
-
-			// get child Node Neighbors
-			childNodeNeighbors = childNode.getNeighbors();
-			for (int j = 0; j < childNodeNeighbors.length; j++) {
-				int neighborID = childNodeNeighbors[j].getNodeID();
-				//System.out.println(neighborID);
-				curNeighbor = this.reversedMap.get(neighborID);
-				if (curNeighbor != curNodeID) {
-					curNeighbors.add(curNeighbor);
-				}
+			if (adjacencyLength > MAX_ADJACENCY_LENGTH) {
+				throw new ArithmeticException("coarse adjacency of " + adjacencyLength + " entries overflows int");
 			}
+			storage = null;
+			xadj = new int[numberOfNodes + 1];
+			adjncy = new int[(int) adjacencyLength];
+			adjwgt = new int[(int) adjacencyLength];
+			vwgt = new int[numberOfNodes];
 		}
-
-		curNeighborsArray = new int[curNeighbors.size()];
-		Iterator<Integer> it = curNeighbors.iterator();
-		int arrIndex = 0;
-		while (it.hasNext()) {
-			curNeighborsArray[arrIndex] = it.next();
-			arrIndex++;
+		if (!parallel) {
+			copyBlock(blocks[0], offsets[0], storage, xadj, adjncy, adjwgt, vwgt);
+		} else {
+			ArrayList<Callable<Void>> tasks = new ArrayList<Callable<Void>>(blocks.length);
+			for (int b = 0; b < blocks.length; b++) {
+				final ContractionBlock block = blocks[b];
+				final long offset = offsets[b];
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						copyBlock(block, offset, storage, xadj, adjncy, adjwgt, vwgt);
+						return null;
+					}
+				});
+			}
+			ParallelTasks.invokeAll(tasks);
+		}
+		if (offHeap) {
+			this.setOffHeapAdjacency(storage);
+		} else {
+			this.setAdjacency(xadj, adjncy, adjwgt, vwgt);
 		}
-
-		return curNeighborsArray;
 	}
 
-	private int getNodeWeight(int curNodeID) {
-		int weight = 0;
-		int curNodeIndex = curNodeID - 1;
-		int childNodeID;
-		for (int i = 0; i < this.nodesTree.get(curNodeIndex).size(); i++) {
-			childNodeID = this.nodesTree.get(curNodeIndex).get(i);
-			weight += this.parentGraph.getNode(childNodeID).getNodeWeight();
+	/*
+	 * This function copies a block to the coarse adjacency starting at offset,
+	 * to the off heap storage if it is not null, otherwise to the arrays
+	 */
+	private static void copyBlock(ContractionBlock block, long offset, OffHeapGraphStorage storage, int[] xadj,
+			int[] adjncy, int[] adjwgt, int[] vwgt) {
+		int size = block.end - block.start;
+		if (storage != null) {
+			storage.setRows(block.start, size, offset, block.xadj, block.adjncy, block.adjwgt, block.vwgt);
+			return;
+		}
+		int length = block.xadj[size];
+		System.arraycopy(block.adjncy, 0, adjncy, (int) offset, length);
+		System.arraycopy(block.adjwgt, 0, adjwgt, (int) offset, length);
+		System.arraycopy(block.vwgt, 0, vwgt, block.start, size);
+		for (int i = 1; i <= size; i++) {
+			xadj[block.start + i] = block.xadj[i] + (int) offset;
 		}
-		return weight;
 	}
 
-	private void createReversedMap() {
-		this.reversedMap = new HashMap<Integer, Integer>(this.parentGraph.numberOfNodes);
-		// fill the reversed map
-		int parentNodeID, childNodeID;
-		for (int i = 0; i < this.nodesTree.size(); i++) {
-			parentNodeID = i + 1;
-			for (int j = 0; j < this.nodesTree.get(i).size(); j++) {
-				childNodeID = this.nodesTree.get(i).get(j);
-				reversedMap.put(childNodeID, parentNodeID);
+	/*
+	 * Contracts the coarse nodes start ... end - 1 into local adjacency arrays,
+	 * xadj of the block starts at 0
+	 * the arrays of the block are work arrays, they are copied to the coarse graph by join
+	 */
+	private class ContractionBlock implements Callable<Void> {
+		private int start;
+		private int end;
+		private int numberOfNodes;
+		private int[] childsXadj;
+		private int[] childs;
+		private int[] xadj;
+		private int[] adjncy;
+		private int[] adjwgt;
+		private int[] vwgt;
+		private long[] accumulator;
+		private int[] marker;
+		private int[] row;
+
+		/*
+		 * parentAdjacencyLength is the number of parent adjacency entries of the childs,
+		 * the block can not have more entries than that
+		 */
+		public ContractionBlock(int start, int end, int parentAdjacencyLength, int numberOfNodes, int[] childsXadj,
+				int[] childs, ScratchBuffers scratchBuffers, int blockNumber) {
+			int slots = BLOCK_SLOTS * blockNumber;
+			this.start = start;
+			this.end = end;
+			this.numberOfNodes = numberOfNodes;
+			this.childsXadj = childsXadj;
+			this.childs = childs;
+			this.xadj = scratchBuffers.getInts(BLOCK_XADJ_SLOT + slots, end - start + 1);
+			this.adjncy = scratchBuffers.getInts(BLOCK_ADJNCY_SLOT + slots, parentAdjacencyLength);
+			this.adjwgt = scratchBuffers.getInts(BLOCK_ADJWGT_SLOT + slots, parentAdjacencyLength);
+			this.vwgt = scratchBuffers.getInts(BLOCK_VWGT_SLOT + slots, end - start);
+			// dense accumulator, marker[c] is the coarse node whose row holds neighbor c
+			this.accumulator = scratchBuffers.getLongs(blockNumber, numberOfNodes);
+			this.marker = scratchBuffers.getInts(MARKER_SLOT + slots, numberOfNodes);
+			this.row = scratchBuffers.getInts(ROW_SLOT + slots, numberOfNodes);
+		}
+
+		@Override
+		public Void call() {
+			int[] parentXadj = parentGraph.getXadj();
+			int[] parentAdjncy = parentGraph.getAdjncy();
+			int[] parentAdjwgt = parentGraph.getAdjwgt();
+			int[] parentVwgt = parentGraph.getVwgt();
+			long[] parentInternalEdgeWeights = parentGraph.internalEdgeWeights;
+			int[] parentOriginalNodeCounts = parentGraph.originalNodeCounts;
+			int numberOfNodes = this.numberOfNodes;
+			long[] accumulator = this.accumulator;
+			int[] marker = this.marker;
+			int[] row = this.row;
+			Arrays.fill(marker, 0, numberOfNodes, -1);
+			int adjIndex = 0;
+			this.xadj[0] = 0;
+			for (int i = this.start; i < this.end; i++) {
+				long nodeWeight = 0;
+				long internalWeight = 0;
+				long droppedWeight = 0;
+				int originalNodes = 0;
+				int degree = 0;
+				for (int k = this.childsXadj[i]; k < this.childsXadj[i + 1]; k++) {
+					int child = this.childs[k];
+					nodeWeight += parentVwgt[child];
+					if (parentInternalEdgeWeights != null) {
+						internalWeight += parentInternalEdgeWeights[child];
+						originalNodes += parentOriginalNodeCounts[child];
+					} else {
+						originalNodes++;
+					}
+					for (int j = parentXadj[child]; j < parentXadj[child + 1]; j++) {
+						int neighbor = cmap[parentAdjncy[j]];
+						// edges inside the coarse node are dropped, each is seen from both ends
+						if (neighbor == i) {
+							droppedWeight += parentAdjwgt[j];
+							continue;
+						}
+						if (marker[neighbor] != i) {
+							marker[neighbor] = i;
+							accumulator[neighbor] = 0;
+							row[degree++] = neighbor;
+						}
+						accumulator[neighbor] += parentAdjwgt[j];
+					}
+				}
+				for (int j = 0; j < degree; j++) {
+					this.adjncy[adjIndex] = row[j];
+					this.adjwgt[adjIndex] = toWeight(accumulator[row[j]]);
+					adjIndex++;
+				}
+				this.vwgt[i - this.start] = toWeight(nodeWeight);
+				internalEdgeWeights[i] = internalWeight + droppedWeight / 2;
+				originalNodeCounts[i] = originalNodes;
+				this.xadj[i - this.start + 1] = adjIndex;
 			}
+			return null;
 		}
 	}
 
-	public ArrayList<Integer> getNodeChilds(int nodeID) {
-		return this.nodesTree.get(nodeID - 1);
+	/*
+	 * weights are summed as long, a sum that does not fit
+	 * in the int weights of the graph is an error instead of a negative weight
+	 */
+	private static int toWeight(long weight) {
+		if (weight > Integer.MAX_VALUE) {
+			throw new ArithmeticException("coarse weight " + weight + " overflows int");
+		}
+		return (int) weight;
 	}
 
-	private int calculateEdgeWeight(int sourceID, int destinationID) {
-		int edgeWeight = 0;
-		ArrayList<Integer> sourceNeighbors = this.nodesTree.get(sourceID - 1);
-		ArrayList<Integer> destinationNeighbors = this.nodesTree.get(destinationID - 1);
-		for (int i = 0; i < sourceNeighbors.size(); i++) {
-			for (int j = 0; j < destinationNeighbors.size(); j++) {
-				Edge innerEdge = this.parentGraph.getEdge(sourceNeighbors.get(i), destinationNeighbors.get(j));
-				if (innerEdge != null) {
-					edgeWeight += innerEdge.getWeight();
+	@Override
+	protected Node createNode(int nodeID, int nodeWeight) {
+		return new CoarseNode(nodeID, nodeWeight);
+	}
+
+	@Override
+	protected Edge createEdge(int sourceID, int destinationID, int weight) {
+		return new CoarseEdge(sourceID, destinationID, weight);
+	}
+
+	/*
+	 * The weight of a coarse node for each constraint is the sum
+	 * of the weights of its childs for that constraint
+	 */
+	private int[] calculateConstraintsWeights(int[] childsXadj, int[] childs) {
+		int numberOfConstraints = this.parentGraph.numberOfConstraints;
+		int[] parentWeights = this.parentGraph.constraintsWeights;
+		int[] constraintsWeights = new int[this.numberOfNodes * numberOfConstraints];
+		for (int i = 0; i < this.numberOfNodes; i++) {
+			for (int c = 0; c < numberOfConstraints; c++) {
+				long weight = 0;
+				for (int k = childsXadj[i]; k < childsXadj[i + 1]; k++) {
+					weight += parentWeights[childs[k] * numberOfConstraints + c];
 				}
+				constraintsWeights[i * numberOfConstraints + c] = toWeight(weight);
 			}
 		}
-		return edgeWeight;
+		return constraintsWeights;
 	}
 
-	public long[][] getAdjacencyMatrix() {
-		long[][] adjMatrix = new long[this.numberOfNodes][this.numberOfNodes];
-		for (int i = 0; i < this.numberOfNodes - 1; i++) {
-			int node1ID = i+1;
-			for (int j = i+1; j < this.numberOfNodes; j++) {
-				int node2ID = j+1;
-				CoarseEdge edge = (CoarseEdge) getEdge(node1ID, node2ID);
-				int edgeWeight = 0;
-				if (edge != null) {
-					edgeWeight = edge.getWeight();
-				}
-				adjMatrix[i][j] = edgeWeight;
-				adjMatrix[j][i] = edgeWeight;
-			}
+	private void createNodesTree() {
+		ArrayList<ArrayList<Integer>> nodesTree = new ArrayList<ArrayList<Integer>>(this.numberOfNodes);
+		for (int i = 0; i < this.numberOfNodes; i++) {
+			nodesTree.add(new ArrayList<Integer>(2));
+		}
+		for (int i = 0; i < this.cmap.length; i++) {
+			nodesTree.get(this.cmap[i]).add(i + 1);
 		}
-		return adjMatrix;
+		this.nodesTree = nodesTree;
 	}
+
+	public ArrayList<Integer> getNodeChilds(int nodeID) {
+		if (this.nodesTree == null) {
+			this.createNodesTree();
+		}
+		return this.nodesTree.get(nodeID - 1);
+	}
+
 	/*
 	 * Setters & Getters
 	 */
@@ -215,4 +432,7 @@ public class CoarseGraph extends Graph {
 		this.parentGraph = parentGraph;
 	}
 
+	public int[] getCmap() {
+		return cmap;
+	}
 }
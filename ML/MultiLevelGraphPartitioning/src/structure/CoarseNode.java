@@ -1,7 +1,5 @@
 package structure;
 
-import java.util.HashMap;
-
 public class CoarseNode extends Node{
 
 	public CoarseNode(int nodeID, int nodeWeight) {
@@ -9,9 +7,8 @@ public class CoarseNode extends Node{
 		super(nodeID, nodeWeight);
 	}
 	public CoarseNode(int curNodeID, int curNodeWeight, Node[] neighbors,
-			Edge[] neighborsEdges,
-			HashMap<Integer, Tuple<Node, Edge>> neighborsMap) {
-		super(curNodeID, curNodeWeight, neighbors, neighborsEdges, neighborsMap);
+			Edge[] neighborsEdges) {
+		super(curNodeID, curNodeWeight, neighbors, neighborsEdges);
 	}
 
 
@@ -0,0 +1,339 @@
+package structure;
+
+import java.util.Arrays;
+
+/*
+ * Compressed adjacency storage of a graph
+ * the neighbors of each node are sorted and stored as variable length integers (varint),
+ * 7 bits per byte, the high bit marks that more bytes follow
+ *
+ * node line: degree, first neighbor as a zigzag encoded difference to the node,
+ * then the gaps between consecutive neighbors
+ * if any edge weight is not 1 (or the file has edge weights), each neighbor is followed by its edge weight
+ *
+ * mesh graphs have close neighbor IDs, so most neighbors take a single byte
+ * instead of 8 bytes (adjncy + adjwgt), offsets[i] is where node i + 1 starts
+ *
+ * GraphReader.readCompressed reads a file into this storage a chunk at a time,
+ * so the adjacency arrays of the whole graph are never created,
+ * the compressed adjacency is one byte array of at most MAX_ADJACENCY_SIZE bytes
+ */
+public class CompressedGraph {
+
+	// the adjacency bytes are a single array, larger graphs throw an IllegalStateException
+	static final int MAX_ADJACENCY_SIZE = Integer.MAX_VALUE - 8;
+
+	private int numberOfNodes;
+	private long numberOfEdges;
+	private int[] offsets;
+	private byte[] adjacency;
+	private int[] vwgt;
+	private int numberOfConstraints = 1;
+	private int[] constraintsWeights;
+	private boolean weighted;
+	// nodes and adjacency bytes appended so far while the graph is read
+	private int numberOfAppendedNodes;
+	private int size;
+
+	public CompressedGraph(Graph graph) {
+		this(graph.getXadj(), graph.getAdjncy(), graph.getAdjwgt(), graph.getVwgt());
+		if (graph.getConstraintsWeights() != null) {
+			this.numberOfConstraints = graph.getNumberOfConstraints();
+			this.constraintsWeights = graph.getConstraintsWeights();
+		}
+	}
+
+	public CompressedGraph(int[] xadj, int[] adjncy, int[] adjwgt, int[] vwgt) {
+		this.numberOfNodes = vwgt.length;
+		this.numberOfEdges = xadj[this.numberOfNodes] / 2;
+		this.vwgt = vwgt;
+		this.weighted = false;
+		for (int j = 0; j < xadj[this.numberOfNodes]; j++) {
+			if (adjwgt[j] != 1) {
+				this.weighted = true;
+				break;
+			}
+		}
+		Rows rows = encode(xadj, adjncy, adjwgt, 0, this.numberOfNodes, this.weighted);
+		this.offsets = new int[this.numberOfNodes + 1];
+		System.arraycopy(rows.ends, 0, this.offsets, 1, this.numberOfNodes);
+		this.adjacency = Arrays.copyOf(rows.bytes, rows.size);
+		this.numberOfAppendedNodes = this.numberOfNodes;
+		this.size = rows.size;
+	}
+
+	/*
+	 * empty graph the rows of its nodes are appended to in order (see GraphReader.readCompressed)
+	 */
+	CompressedGraph(int numberOfNodes, long numberOfEdges, int numberOfConstraints, boolean weighted) {
+		this.numberOfNodes = numberOfNodes;
+		this.numberOfEdges = numberOfEdges;
+		this.weighted = weighted;
+		this.offsets = new int[numberOfNodes + 1];
+		this.vwgt = new int[numberOfNodes];
+		this.numberOfConstraints = numberOfConstraints;
+		if (numberOfConstraints > 1) {
+			this.constraintsWeights = new int[numberOfNodes * numberOfConstraints];
+		}
+		this.adjacency = new byte[16];
+	}
+
+	/*
+	 * Compressed rows of consecutive nodes, row k ends at ends[k] in bytes
+	 */
+	static class Rows {
+		private byte[] bytes;
+		private int[] ends;
+		private int size;
+	}
+
+	/*
+	 * This function compresses the rows of the nodes firstNode ... firstNode + count - 1,
+	 * row k of the arrays is the row of node firstNode + k
+	 * it only reads the arrays, so parts of a graph can be compressed in parallel
+	 */
+	static Rows encode(int[] xadj, int[] adjncy, int[] adjwgt, int firstNode, int count, boolean weighted) {
+		Rows rows = new Rows();
+		rows.ends = new int[count];
+		// start with one byte per neighbor, grow if needed
+		long capacity = Math.max(16L, (long) xadj[count] - xadj[0] + count);
+		byte[] bytes = new byte[(int) Math.min(MAX_ADJACENCY_SIZE, capacity)];
+		int position = 0;
+		long[] sorted = new long[0];
+		for (int k = 0; k < count; k++) {
+			int i = firstNode + k;
+			int degree = xadj[k + 1] - xadj[k];
+			// sort the neighbors with their weights, neighbor in the high bits
+			if (sorted.length < degree) {
+				sorted = new long[Math.max(degree, sorted.length * 2)];
+			}
+			for (int j = 0; j < degree; j++) {
+				sorted[j] = ((long) adjncy[xadj[k] + j] << 32) | (adjwgt[xadj[k] + j] & 0xFFFFFFFFL);
+			}
+			Arrays.sort(sorted, 0, degree);
+
+			// a varint takes at most 5 bytes, 10 with the weight
+			if (bytes.length - position < 5 + 10L * degree) {
+				bytes = grow(bytes, position + 5 + 10L * degree);
+			}
+			position = writeVarint(bytes, position, degree);
+			int previous = i;
+			for (int j = 0; j < degree; j++) {
+				int neighbor = (int) (sorted[j] >>> 32);
+				if (j == 0) {
+					int difference = neighbor - i;
+					position = writeVarint(bytes, position, (difference << 1) ^ (difference >> 31));
+				} else {
+					position = writeVarint(bytes, position, neighbor - previous);
+				}
+				if (weighted) {
+					position = writeVarint(bytes, position, (int) sorted[j]);
+				}
+				previous = neighbor;
+			}
+			rows.ends[k] = position;
+		}
+		rows.bytes = bytes;
+		rows.size = position;
+		return rows;
+	}
+
+	/*
+	 * This function appends compressed rows of the next nodes with their weights,
+	 * numberOfConstraints weights per node if the graph has more than one constraint
+	 */
+	void append(Rows rows, int[] vwgt, int[] constraintsWeights) {
+		int count = rows.ends.length;
+		if ((long) this.size + rows.size > this.adjacency.length) {
+			this.adjacency = grow(this.adjacency, (long) this.size + rows.size);
+		}
+		System.arraycopy(rows.bytes, 0, this.adjacency, this.size, rows.size);
+		for (int k = 0; k < count; k++) {
+			this.offsets[this.numberOfAppendedNodes + k + 1] = this.size + rows.ends[k];
+		}
+		System.arraycopy(vwgt, 0, this.vwgt, this.numberOfAppendedNodes, count);
+		if (this.constraintsWeights != null) {
+			System.arraycopy(constraintsWeights, 0, this.constraintsWeights,
+					this.numberOfAppendedNodes * this.numberOfConstraints, count * this.numberOfConstraints);
+		}
+		this.numberOfAppendedNodes += count;
+		this.size += rows.size;
+	}
+
+	/*
+	 * This function releases the unused capacity once all rows are appended
+	 */
+	void trim() {
+		this.adjacency = Arrays.copyOf(this.adjacency, this.size);
+	}
+
+	/*
+	 * This function returns the bytes grown to at least capacity,
+	 * the adjacency of a single array can not grow past MAX_ADJACENCY_SIZE
+	 */
+	private static byte[] grow(byte[] bytes, long capacity) {
+		if (capacity > MAX_ADJACENCY_SIZE) {
+			throw new IllegalStateException(
+					"compressed adjacency of " + capacity + " bytes exceeds " + MAX_ADJACENCY_SIZE + " bytes");
+		}
+		long grown = Math.min(MAX_ADJACENCY_SIZE, bytes.length + (bytes.length >> 1));
+		return Arrays.copyOf(bytes, (int) Math.max(grown, capacity));
+	}
+
+	private static int writeVarint(byte[] bytes, int position, int value) {
+		while ((value & ~0x7F) != 0) {
+			bytes[position++] = (byte) ((value & 0x7F) | 0x80);
+			value >>>= 7;
+		}
+		bytes[position++] = (byte) value;
+		return position;
+	}
+
+	/*
+	 * This function returns an iterator over the neighbors of the node,
+	 * the iterator can be reused for other nodes with reset
+	 */
+	public NeighborIterator getNeighbors(int nodeID) {
+		NeighborIterator iterator = new NeighborIterator();
+		iterator.reset(nodeID);
+		return iterator;
+	}
+
+	public int getNumberOfNeighbors(int nodeID) {
+		int position = this.offsets[nodeID - 1];
+		int value = 0;
+		int shift = 0;
+		byte b;
+		do {
+			b = this.adjacency[position++];
+			value |= (b & 0x7F) << shift;
+			shift += 7;
+		} while (b < 0);
+		return value;
+	}
+
+	/*
+	 * This function decompresses the graph back to the adjacency arrays
+	 * the neighbors of each node are sorted by ID
+	 */
+	public Graph toGraph() {
+		int[] xadj = new int[this.numberOfNodes + 1];
+		int[] adjncy = new int[(int) (2 * this.numberOfEdges)];
+		int[] adjwgt = new int[adjncy.length];
+		NeighborIterator iterator = new NeighborIterator();
+		int adjIndex = 0;
+		for (int i = 0; i < this.numberOfNodes; i++) {
+			iterator.reset(i + 1);
+			while (iterator.hasNext()) {
+				adjncy[adjIndex] = iterator.next() - 1;
+				adjwgt[adjIndex] = iterator.getWeight();
+				adjIndex++;
+			}
+			xadj[i + 1] = adjIndex;
+		}
+		Graph graph = new Graph(xadj, adjncy, adjwgt, Arrays.copyOf(this.vwgt, this.numberOfNodes));
+		if (this.constraintsWeights != null) {
+			graph.setConstraintsWeights(this.numberOfConstraints, this.constraintsWeights.clone());
+		}
+		return graph;
+	}
+
+	/*
+	 * memory used by the adjacency storage in bytes,
+	 * the CSR arrays of the same graph use 4 * (n + 1) + 8 * 2m bytes
+	 */
+	public long getAdjacencySize() {
+		return 4L * this.offsets.length + this.adjacency.length;
+	}
+
+	/*
+	 * Iterates the neighbors of a node by decoding its varints in place,
+	 * no objects are created while iterating
+	 */
+	public class NeighborIterator {
+		private int position;
+		private int remaining;
+		private int first;
+		private int current;
+		private int weight;
+
+		public void reset(int nodeID) {
+			this.position = offsets[nodeID - 1];
+			this.remaining = this.readVarint();
+			this.first = this.remaining;
+			this.current = nodeID - 1;
+			this.weight = 1;
+		}
+
+		public boolean hasNext() {
+			return this.remaining > 0;
+		}
+
+		/*
+		 * returns the ID of the next neighbor
+		 */
+		public int next() {
+			int value = this.readVarint();
+			if (this.remaining == this.first) {
+				this.current += (value >>> 1) ^ -(value & 1);
+			} else {
+				this.current += value;
+			}
+			if (weighted) {
+				this.weight = this.readVarint();
+			}
+			this.remaining--;
+			return this.current + 1;
+		}
+
+		/*
+		 * returns the weight of the edge to the last neighbor returned by next
+		 */
+		public int getWeight() {
+			return this.weight;
+		}
+
+		private int readVarint() {
+			int value = 0;
+			int shift = 0;
+			byte b;
+			do {
+				b = adjacency[this.position++];
+				value |= (b & 0x7F) << shift;
+				shift += 7;
+			} while (b < 0);
+			return value;
+		}
+	}
+
+	/*
+	 * Setters & Getters
+	 */
+	public int getNumberOfNodes() {
+		return numberOfNodes;
+	}
+
+	public long getNumberOfEdges() {
+		return numberOfEdges;
+	}
+
+	public int getNodeWeight(int nodeID) {
+		return this.vwgt[nodeID - 1];
+	}
+
+	public int[] getVwgt() {
+		return vwgt;
+	}
+
+	public int getNumberOfConstraints() {
+		return numberOfConstraints;
+	}
+
+	public int[] getConstraintsWeights() {
+		return constraintsWeights;
+	}
+
+	public boolean isWeighted() {
+		return weighted;
+	}
+}
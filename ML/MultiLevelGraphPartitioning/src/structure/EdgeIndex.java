@@ -0,0 +1,106 @@
+package structure;
+
+import java.util.Arrays;
+
+/*
+ * Open addressing hash index from an edge to its position in the adjacency arrays
+ * the key of the edge {u, v} is (min << 32) | max of the node indices,
+ * so both directions find the same entry and lookups do not create objects
+ *
+ * each edge is stored once, linear probing, the table is at most half full
+ * up to 2^29 edges, the largest table has 2^30 entries and holds 2^30 - 1 edges
+ * (more than Graph.MAX_ADJACENCY_LENGTH / 2), a table that is full throws an IllegalStateException
+ * instead of probing forever
+ */
+public class EdgeIndex {
+
+	private static final long EMPTY = -1;
+	private static final int MAX_CAPACITY = 1 << 30;
+
+	private long[] keys;
+	private int[] positions;
+	private int mask;
+	private int size;
+
+	public EdgeIndex(int[] xadj, int[] adjncy) {
+		// at least twice the number of edges
+		this(xadj, adjncy, (int) Math.min(MAX_CAPACITY,
+				Long.highestOneBit(Math.max(2L, xadj[xadj.length - 1] / 2) * 2 - 1) << 1));
+	}
+
+	/*
+	 * capacity is the size of the table, a power of 2
+	 */
+	EdgeIndex(int[] xadj, int[] adjncy, int capacity) {
+		int numberOfNodes = xadj.length - 1;
+		this.keys = new long[capacity];
+		this.positions = new int[capacity];
+		this.mask = capacity - 1;
+		Arrays.fill(this.keys, EMPTY);
+		for (int i = 0; i < numberOfNodes; i++) {
+			for (int j = xadj[i]; j < xadj[i + 1]; j++) {
+				// store the edge from the smaller end only
+				if (i < adjncy[j]) {
+					this.put(key(i, adjncy[j]), j);
+				}
+			}
+		}
+	}
+
+	private static long key(int nodeIndex1, int nodeIndex2) {
+		if (nodeIndex1 > nodeIndex2) {
+			return ((long) nodeIndex2 << 32) | nodeIndex1;
+		}
+		return ((long) nodeIndex1 << 32) | nodeIndex2;
+	}
+
+	private static int hash(long key) {
+		// mix the bits (murmur3 finalizer)
+		key ^= key >>> 33;
+		key *= 0xff51afd7ed558ccdL;
+		key ^= key >>> 33;
+		return (int) key;
+	}
+
+	private void put(long key, int position) {
+		int slot = hash(key) & this.mask;
+		while (this.keys[slot] != EMPTY) {
+			// keep the first position of a repeated edge
+			if (this.keys[slot] == key) {
+				return;
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		if (this.size == this.keys.length - 1) {
+			// an empty slot must be left so the lookups of missing edges end
+			throw new IllegalStateException("edge index is full, it holds at most " + (this.keys.length - 1) + " edges");
+		}
+		this.keys[slot] = key;
+		this.positions[slot] = position;
+		this.size++;
+	}
+
+	/*
+	 * This function returns the position of the edge between the two nodes
+	 * in the adjacency arrays of the smaller one, or -1 if they are not adjacent
+	 */
+	public int getPosition(int nodeIndex1, int nodeIndex2) {
+		long key = key(nodeIndex1, nodeIndex2);
+		int slot = hash(key) & this.mask;
+		long current;
+		while ((current = this.keys[slot]) != EMPTY) {
+			if (current == key) {
+				return this.positions[slot];
+			}
+			slot = (slot + 1) & this.mask;
+		}
+		return -1;
+	}
+
+	/*
+	 * memory used by the index in bytes
+	 */
+	public long getSize() {
+		return 12L * this.keys.length;
+	}
+}
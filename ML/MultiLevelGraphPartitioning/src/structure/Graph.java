@@ -1,174 +1,356 @@
 package structure;
 
-import java.io.BufferedReader;
-import java.io.FileReader;
+import java.io.IOException;
+import java.io.UncheckedIOException;
 import java.util.Arrays;
-import java.util.HashMap;
 import java.util.HashSet;
-import java.util.Map;
 import java.util.Random;
 
+/*
+ * The graph is stored in compressed sparse row (CSR) format
+ * node with ID v is stored at index v - 1, its neighbors indices are
+ * adjncy[xadj[v - 1]] ... adjncy[xadj[v] - 1]
+ * and the weights of the edges to them are stored at the same positions in adjwgt
+ *
+ * The Node/Edge objects are only an adapter over the arrays,
+ * they are created the first time they are requested
+ *
+ * the arrays are indexed by int, so a graph has at most MAX_ADJACENCY_LENGTH adjacency entries
+ * (twice the number of edges), GraphReader rejects larger files before parsing them
+ * and OffHeapGraphStorage can hold larger arrays but not copy them to a Graph
+ *
+ * The arrays can be moved off heap while the graph is not used (moveOffHeap),
+ * they are copied back to the heap the first time they are accessed again
+ * and the off heap copy is released, so the arrays are never in both places
+ * the matchings, the contraction and the refinement work on the heap arrays,
+ * so only the levels that are not in use are kept off heap (see GraphHierarchy.addLevel)
+ */
 public class Graph {
 
+	// the largest array the JVM can allocate
+	public static final int MAX_ADJACENCY_LENGTH = Integer.MAX_VALUE - 8;
+
 	protected int numberOfNodes;
 	protected long numberOfEdges;
-	protected int edgeIndex;
+	protected int[] xadj;
+	protected int[] adjncy;
+	protected int[] adjwgt;
+	protected int[] vwgt;
+	protected int[] shuffeledNodesIDs;
+	// multi-constraint weights, numberOfConstraints values per node
+	// null if the graph has a single constraint, its weights are in vwgt
+	protected int numberOfConstraints = 1;
+	protected int[] constraintsWeights;
+	// weight of the edges between the original nodes inside each node,
+	// null if the graph is not a coarse graph (no edges inside its nodes)
+	protected long[] internalEdgeWeights;
+	// number of original nodes inside each node, null if the graph is not a coarse graph (one each)
+	protected int[] originalNodeCounts;
+	// edge lookup by its two ends, created the first time it is needed
+	protected EdgeIndex edgeIndex;
+	// the arrays outside the heap, null while they are on heap
+	protected OffHeapGraphStorage offHeapStorage;
+
+	// Node/Edge view
 	protected Node[] nodes;
 	protected Edge[] edges;
-	protected int[] shuffeledNodesIDs;
-
-	protected HashMap<Tuple<Integer, Integer>, Edge> nodesEdgesMap;
 
 	public Graph() {
 	}
 
+	public Graph(int[] xadj, int[] adjncy, int[] adjwgt, int[] vwgt) {
+		this.setAdjacency(xadj, adjncy, adjwgt, vwgt);
+	}
+
+	/*
+	 * reads the graph from a METIS file,
+	 * an UncheckedIOException is thrown if the file can not be read or is not a valid graph
+	 */
 	public Graph(String fileSrc) {
-		FileReader in;
-		BufferedReader br;
-		String line;
-		this.edgeIndex = 0;
 		try {
-			in = new FileReader(fileSrc);
-			br = new BufferedReader(in);
-			// read first line number of file
-			// contains details about the graph
-			// nodes number, and edges number
-			// directed or undirected graph
-			// weighted or non-weighted nodes, edges
-			line = br.readLine();
-			int[] hdr = translateFileLine(line);
-			this.numberOfNodes = hdr[0];
-			this.numberOfEdges = hdr[1];
-			// hdr[2] graph is directed if 11
-			this.nodes = new Node[this.numberOfNodes];
-			this.edges = new Edge[(int) this.numberOfEdges];
-			this.nodesEdgesMap = new HashMap<Tuple<Integer, Integer>, Edge>((int) this.numberOfEdges);
-			// read nodes and edges
-			int nodeID = 1;
-			int lineCounter = 0;
-			while (lineCounter < this.numberOfNodes) {
-				line = br.readLine();
-				if (line == null)
-					break;
-				storeNodeLine(nodeID, line);
-				nodeID++;
-				lineCounter++;
-			}
-			in.close();
-			// initialize shuffled nodes
-			// this array will be needed for randomization purposes
-			this.shuffeledNodesIDs = new int[this.numberOfNodes];
-			for (int i = 0; i < this.nodes.length; i++) {
-				this.shuffeledNodesIDs[i] = i + 1;
+			Graph graph = new GraphReader(fileSrc).read();
+			this.setAdjacency(graph.xadj, graph.adjncy, graph.adjwgt, graph.vwgt);
+			if (graph.constraintsWeights != null) {
+				this.setConstraintsWeights(graph.numberOfConstraints, graph.constraintsWeights);
 			}
-			// sort edges by weight
-			Arrays.sort(this.edges);
-		} catch (Exception e) {
-			// TODO Auto-generated catch block
-			e.printStackTrace();
+		} catch (IOException e) {
+			throw new UncheckedIOException(e);
 		}
-
 	}
 
 	/*
-	 * This Function receives Graph file line and return Integer array with
-	 * nodes IDs
+	 * This function sets the adjacency arrays of the graph,
+	 * any Node/Edge view created before is dropped
 	 */
-	private int[] translateFileLine(String line) {
-		String trimmedLine = line.trim();
-		if (trimmedLine.length() == 0) {
-			return new int[0];
+	protected void setAdjacency(int[] xadj, int[] adjncy, int[] adjwgt, int[] vwgt) {
+		this.numberOfNodes = vwgt.length;
+		this.numberOfEdges = xadj[this.numberOfNodes] / 2;
+		this.xadj = xadj;
+		this.adjncy = adjncy;
+		this.adjwgt = adjwgt;
+		this.vwgt = vwgt;
+		this.nodes = null;
+		this.edges = null;
+		this.edgeIndex = null;
+		this.offHeapStorage = null;
+		// initialize shuffled nodes
+		// this array will be needed for randomization purposes
+		this.shuffeledNodesIDs = new int[this.numberOfNodes];
+		for (int i = 0; i < this.numberOfNodes; i++) {
+			this.shuffeledNodesIDs[i] = i + 1;
 		}
-		String[] neighborsString = trimmedLine.split(" ");
-		int[] neighborsIDs = new int[neighborsString.length];
-		for (int i = 0; i < neighborsIDs.length; i++) {
-			neighborsIDs[i] = Integer.parseInt(neighborsString[i]);
+	}
 
+	/*
+	 * This function sets the adjacency arrays of the graph from off heap storage,
+	 * the arrays stay off heap until they are accessed
+	 */
+	protected void setOffHeapAdjacency(OffHeapGraphStorage offHeapStorage) {
+		this.setAdjacency(new int[] { 0 }, new int[0], new int[0], new int[0]);
+		this.numberOfNodes = offHeapStorage.getNumberOfNodes();
+		this.numberOfEdges = offHeapStorage.getAdjacencyLength() / 2;
+		this.xadj = null;
+		this.adjncy = null;
+		this.adjwgt = null;
+		this.vwgt = null;
+		this.offHeapStorage = offHeapStorage;
+		this.shuffeledNodesIDs = new int[this.numberOfNodes];
+		for (int i = 0; i < this.numberOfNodes; i++) {
+			this.shuffeledNodesIDs[i] = i + 1;
 		}
-		return neighborsIDs;
 	}
 
 	/*
-	 * This Function Checks if Node is already created
+	 * This function moves the adjacency arrays off heap,
+	 * the Node/Edge view and the edge index are dropped
 	 */
-	protected boolean isNodeCreated(int NodeID) {
-		// NodeID == NodeIndex + 1
-		return (this.nodes[NodeID - 1] != null);
+	public void moveOffHeap() {
+		if (this.xadj == null) {
+			return;
+		}
+		this.offHeapStorage = new OffHeapGraphStorage(this.xadj, this.adjncy, this.adjwgt, this.vwgt);
+		this.xadj = null;
+		this.adjncy = null;
+		this.adjwgt = null;
+		this.vwgt = null;
+		this.nodes = null;
+		this.edges = null;
+		this.edgeIndex = null;
 	}
 
 	/*
-	 * This Function Checks if Edge is already created
+	 * This function copies the adjacency arrays back to the heap if they are off heap,
+	 * the off heap storage is released (its buffers are freed once it is collected)
 	 */
-	protected boolean isEdgeCreated(int sourceID, int destinationID) {
-		int min = Math.min(sourceID, destinationID);
-		int max = Math.max(sourceID, destinationID);
-		return (this.nodesEdgesMap.containsKey(new Tuple<Integer, Integer>(min, max)));
+	public void moveOnHeap() {
+		if (this.xadj != null) {
+			return;
+		}
+		this.xadj = this.offHeapStorage.getXadj();
+		this.adjncy = this.offHeapStorage.getAdjncy();
+		this.adjwgt = this.offHeapStorage.getAdjwgt();
+		this.vwgt = this.offHeapStorage.getVwgt();
+		this.offHeapStorage = null;
+	}
+
+	public boolean isOffHeap() {
+		return this.xadj == null;
 	}
 
 	/*
-	 * This function return edge with source and destination
+	 * This function sets the weights of the nodes for each constraint,
+	 * the first constraint is also the weight of the node
 	 */
-	public Edge getEdge(int sourceID, int destinationID) {
-		int min = Math.min(sourceID, destinationID);
-		int max = Math.max(sourceID, destinationID);
-		return (this.nodesEdgesMap.get(new Tuple<Integer, Integer>(min, max)));
+	protected void setConstraintsWeights(int numberOfConstraints, int[] constraintsWeights) {
+		this.moveOnHeap();
+		this.numberOfConstraints = numberOfConstraints;
+		this.constraintsWeights = constraintsWeights;
+		for (int i = 0; i < this.numberOfNodes; i++) {
+			this.vwgt[i] = constraintsWeights[i * numberOfConstraints];
+		}
 	}
 
 	/*
-	 * This function store node file line into memory
+	 * This function returns the subgraph induced by the first numberOfSubgraphNodes node indices of nodes,
+	 * node index k of the subgraph is node index nodes[k] of the graph, index is a work array
+	 * of at least numberOfNodes entries
+	 * the weights of the nodes and the weights and counts of the original nodes inside them are kept
 	 */
-	private void storeNodeLine(int nodeID, String line) {
-		int[] nodeNeigborsIDs = translateFileLine(line);
-		Node currentNode;
-		Node[] neighbors = new Node[nodeNeigborsIDs.length];
-		Edge[] edges = new Edge[nodeNeigborsIDs.length];
-		HashMap<Integer, Tuple<Node, Edge>> neighborsMap = new HashMap<Integer, Tuple<Node, Edge>>(
-				nodeNeigborsIDs.length);
-		// create Neighbors Nodes
-		for (int i = 0; i < nodeNeigborsIDs.length; i++) {
-			Node neighborNode;
-			Edge neighborEdge;
-			// check if Node was previously created
-			if (isNodeCreated(nodeNeigborsIDs[i])) {
-				neighborNode = this.nodes[nodeNeigborsIDs[i] - 1];
-			} else {
-				neighborNode = new Node(nodeNeigborsIDs[i], 1);
-				this.nodes[nodeNeigborsIDs[i] - 1] = neighborNode;
+	public Graph createSubgraph(int[] nodes, int numberOfSubgraphNodes, int[] index) {
+		this.moveOnHeap();
+		Arrays.fill(index, 0, this.numberOfNodes, -1);
+		for (int k = 0; k < numberOfSubgraphNodes; k++) {
+			index[nodes[k]] = k;
+		}
+		int[] subgraphXadj = new int[numberOfSubgraphNodes + 1];
+		for (int k = 0; k < numberOfSubgraphNodes; k++) {
+			int degree = 0;
+			for (int j = this.xadj[nodes[k]]; j < this.xadj[nodes[k] + 1]; j++) {
+				if (index[this.adjncy[j]] >= 0) {
+					degree++;
+				}
 			}
-
-			neighbors[i] = neighborNode;
-			if (isEdgeCreated(nodeID, nodeNeigborsIDs[i])) {
-				neighborEdge = getEdge(nodeID, nodeNeigborsIDs[i]);
-			} else {
-				neighborEdge = new Edge(nodeID, nodeNeigborsIDs[i], 1);
+			subgraphXadj[k + 1] = subgraphXadj[k] + degree;
+		}
+		int[] subgraphAdjncy = new int[subgraphXadj[numberOfSubgraphNodes]];
+		int[] subgraphAdjwgt = new int[subgraphXadj[numberOfSubgraphNodes]];
+		int[] subgraphVwgt = new int[numberOfSubgraphNodes];
+		int position = 0;
+		for (int k = 0; k < numberOfSubgraphNodes; k++) {
+			int node = nodes[k];
+			for (int j = this.xadj[node]; j < this.xadj[node + 1]; j++) {
+				if (index[this.adjncy[j]] >= 0) {
+					subgraphAdjncy[position] = index[this.adjncy[j]];
+					subgraphAdjwgt[position] = this.adjwgt[j];
+					position++;
+				}
+			}
+			subgraphVwgt[k] = this.vwgt[node];
+		}
+		Graph subgraph = new Graph(subgraphXadj, subgraphAdjncy, subgraphAdjwgt, subgraphVwgt);
+		if (this.constraintsWeights != null) {
+			int[] constraintsWeights = new int[numberOfSubgraphNodes * this.numberOfConstraints];
+			for (int k = 0; k < numberOfSubgraphNodes; k++) {
+				System.arraycopy(this.constraintsWeights, nodes[k] * this.numberOfConstraints, constraintsWeights,
+						k * this.numberOfConstraints, this.numberOfConstraints);
 			}
-			edges[i] = neighborEdge;
-			neighborsMap.put(nodeNeigborsIDs[i], new Tuple<Node, Edge>(neighbors[i], edges[i]));
-			// Add edge to Graph
-			// make sure each edge is added only once
-			if (nodeID <= nodeNeigborsIDs[i]) {
-				this.nodesEdgesMap.put(new Tuple<Integer, Integer>(nodeID, nodeNeigborsIDs[i]), neighborEdge);
-				this.edges[this.edgeIndex] = neighborEdge;
-				this.edgeIndex++;
+			subgraph.numberOfConstraints = this.numberOfConstraints;
+			subgraph.constraintsWeights = constraintsWeights;
+		}
+		if (this.internalEdgeWeights != null) {
+			subgraph.internalEdgeWeights = new long[numberOfSubgraphNodes];
+			subgraph.originalNodeCounts = new int[numberOfSubgraphNodes];
+			for (int k = 0; k < numberOfSubgraphNodes; k++) {
+				subgraph.internalEdgeWeights[k] = this.internalEdgeWeights[nodes[k]];
+				subgraph.originalNodeCounts[k] = this.originalNodeCounts[nodes[k]];
 			}
+		}
+		return subgraph;
+	}
+
+	/*
+	 * This function creates the Node/Edge objects from the adjacency arrays
+	 * each edge is created once by its smaller end and shared by its two ends,
+	 * the edges array is sorted by weight
+	 *
+	 * the neighbors and edges of a node are in the order of its adjacency row,
+	 * edges are found by their ends through the edge index, so no map is kept per node,
+	 * an edge that is not in the row of its smaller end (an asymmetric graph file)
+	 * is created by its larger end instead
+	 */
+	protected void createNodesView() {
+		this.moveOnHeap();
+		if (this.numberOfEdges > Integer.MAX_VALUE - 8) {
+			throw new IllegalStateException("the Node/Edge view can not hold " + this.numberOfEdges + " edges");
+		}
+		Node[] nodes = new Node[this.numberOfNodes];
+		Edge[] edges = new Edge[(int) this.numberOfEdges];
+		EdgeIndex index = this.getEdgeIndex();
+		int edgeIndex = 0;
+		for (int i = 0; i < this.numberOfNodes; i++) {
+			nodes[i] = this.createNode(i + 1, this.vwgt[i]);
+		}
+		for (int i = 0; i < this.numberOfNodes; i++) {
+			int nodeID = i + 1;
+			int degree = this.xadj[i + 1] - this.xadj[i];
+			Node[] neighbors = new Node[degree];
+			Edge[] neighborsEdges = new Edge[degree];
+			for (int j = 0; j < degree; j++) {
+				int neighborIndex = this.adjncy[this.xadj[i] + j];
+				Edge neighborEdge = null;
+				if (neighborIndex < i) {
+					// created by the neighbor, at the position of the edge in its row
+					int position = index.getPosition(i, neighborIndex);
+					if (position >= 0) {
+						neighborEdge = nodes[neighborIndex].getNeighborsEdges()[position - this.xadj[neighborIndex]];
+					}
+				} else if (neighborIndex > i) {
+					// a repeated edge shares the edge of its first position
+					int position = index.getPosition(i, neighborIndex);
+					if (position < this.xadj[i] + j) {
+						neighborEdge = neighborsEdges[position - this.xadj[i]];
+					}
+				}
+				// make sure each edge is created only once
+				if (neighborEdge == null) {
+					neighborEdge = this.createEdge(nodeID, neighborIndex + 1, this.adjwgt[this.xadj[i] + j]);
+					if (edgeIndex == edges.length) {
+						// an asymmetric graph has more edges than half its adjacency entries
+						edges = Arrays.copyOf(edges, Math.min(this.xadj[this.numberOfNodes], 2 * edges.length + 1));
+					}
+					edges[edgeIndex] = neighborEdge;
+					edgeIndex++;
+				}
+				neighbors[j] = nodes[neighborIndex];
+				neighborsEdges[j] = neighborEdge;
+			}
+			nodes[i].setNeighbors(neighbors);
+			nodes[i].setNeighborsEdges(neighborsEdges);
+			nodes[i].setNumberOfNeighbors(degree);
+		}
+		// sort edges by weight
+		Arrays.sort(edges, 0, edgeIndex);
+		this.nodes = nodes;
+		this.edges = edges;
+	}
+
+	protected Node createNode(int nodeID, int nodeWeight) {
+		return new Node(nodeID, nodeWeight);
+	}
+
+	protected Edge createEdge(int sourceID, int destinationID, int weight) {
+		return new Edge(sourceID, destinationID, weight);
+	}
 
+	/*
+	 * This function return edge with source and destination
+	 */
+	public Edge getEdge(int sourceID, int destinationID) {
+		if (this.nodes == null) {
+			this.createNodesView();
 		}
-		// create current Node
-		if (isNodeCreated(nodeID)) {
-			currentNode = this.nodes[nodeID - 1];
-			currentNode.setNeighbors(neighbors);
-			currentNode.setNeighborsEdges(edges);
-			currentNode.setNeighborsMap(neighborsMap);
-		} else {
-			currentNode = new Node(nodeID, 1, neighbors, edges, neighborsMap);
-			this.nodes[nodeID - 1] = currentNode;
+		int position = this.getEdgeIndex().getPosition(sourceID - 1, destinationID - 1);
+		if (position < 0) {
+			return null;
 		}
+		// the position is in the row of the smaller end
+		int nodeIndex = Math.min(sourceID, destinationID) - 1;
+		return this.nodes[nodeIndex].getNeighborsEdges()[position - this.xadj[nodeIndex]];
+	}
+
+	/*
+	 * This function returns the weight of the edge between the two nodes,
+	 * or 0 if they are not adjacent, without creating any objects
+	 */
+	public int getEdgeWeight(int sourceID, int destinationID) {
+		int position = this.getEdgeIndex().getPosition(sourceID - 1, destinationID - 1);
+		if (position < 0) {
+			return 0;
+		}
+		return this.adjwgt[position];
 	}
 
 	public Node getNode(int nodeID) {
+		if (this.nodes == null) {
+			this.createNodesView();
+		}
 		return this.nodes[nodeID - 1];
 	}
 
+	public int getNodeWeight(int nodeID) {
+		if (this.vwgt == null) {
+			this.moveOnHeap();
+		}
+		return this.vwgt[nodeID - 1];
+	}
+
+	public int getNodeWeight(int nodeID, int constraint) {
+		if (this.constraintsWeights == null) {
+			return this.getNodeWeight(nodeID);
+		}
+		return this.constraintsWeights[(nodeID - 1) * this.numberOfConstraints + constraint];
+	}
+
 	/*
 	 * This function return n random node ID using Durstenfeld's algorithm
 	 * Durstenfeld, R. (July 1964). "Algorithm 235: Random permutation
@@ -200,27 +382,32 @@ public class Graph {
 	 */
 	public HashSet<Integer> getCopyOfNodesIDs() {
 		HashSet<Integer> nodesIDsHashSet = new HashSet<Integer>(this.numberOfNodes);
-		for (int i = 0; i < this.nodes.length; i++) {
-			nodesIDsHashSet.add(this.nodes[i].getNodeID());
+		for (int i = 0; i < this.numberOfNodes; i++) {
+			nodesIDsHashSet.add(i + 1);
 		}
 		return nodesIDsHashSet;
 	}
 
-	public int getTotalNodesWeights() {
-		int totalWeight = 0;
-		for (int i = 0; i < this.nodes.length; i++) {
-			totalWeight += this.nodes[i].getNodeWeight();
+	public long getTotalNodesWeights() {
+		this.moveOnHeap();
+		long totalWeight = 0;
+		for (int i = 0; i < this.numberOfNodes; i++) {
+			totalWeight += this.vwgt[i];
 		}
 		return totalWeight;
 	}
 
 	public void printGraph() {
-		for (Map.Entry<Tuple<Integer, Integer>, Edge> entry : this.nodesEdgesMap.entrySet()) {
-			Tuple<Integer, Integer> key = entry.getKey();
-			Edge value = entry.getValue();
-
-			System.out.println(key.x + "(" + this.getNode(key.x).getNodeWeight() + ") " + key.y + "("
-					+ this.getNode(key.y).getNodeWeight() + ") " + value.getWeight());
+		this.moveOnHeap();
+		for (int i = 0; i < this.numberOfNodes; i++) {
+			for (int j = this.xadj[i]; j < this.xadj[i + 1]; j++) {
+				int neighbor = this.adjncy[j];
+				// print each edge once
+				if (i <= neighbor) {
+					System.out.println((i + 1) + "(" + this.vwgt[i] + ") " + (neighbor + 1) + "("
+							+ this.vwgt[neighbor] + ") " + this.adjwgt[j]);
+				}
+			}
 		}
 	}
 
@@ -233,23 +420,50 @@ public class Graph {
 	}
 
 	public long[][] getAdjacencyMatrix() {
+		this.moveOnHeap();
 		long[][] adjMatrix = new long[this.numberOfNodes][this.numberOfNodes];
-		for (int i = 0; i < this.numberOfNodes - 1; i++) {
-			int node1ID = i+1;
-			for (int j = i+1; j < this.numberOfNodes; j++) {
-				int node2ID = j+1;
-				Edge edge = this.getEdge(node1ID, node2ID);
-				int edgeWeight = 0;
-				if (edge != null) {
-					edgeWeight = edge.getWeight();
-				}
-				adjMatrix[i][j] = edgeWeight;
-				adjMatrix[j][i] = edgeWeight;
+		for (int i = 0; i < this.numberOfNodes; i++) {
+			for (int j = this.xadj[i]; j < this.xadj[i + 1]; j++) {
+				adjMatrix[i][this.adjncy[j]] = this.adjwgt[j];
 			}
 		}
 		return adjMatrix;
 	}
 
+	/*
+	 * memory used on heap by the arrays of the graph and its edge index in bytes,
+	 * the Node/Edge view is not counted
+	 */
+	public long getHeapSize() {
+		long size = 0;
+		if (this.shuffeledNodesIDs != null) {
+			size += 4L * this.shuffeledNodesIDs.length;
+		}
+		if (this.xadj != null) {
+			size += 4L * (this.xadj.length + this.adjncy.length + this.adjwgt.length + this.vwgt.length);
+		}
+		if (this.constraintsWeights != null) {
+			size += 4L * this.constraintsWeights.length;
+		}
+		if (this.internalEdgeWeights != null) {
+			size += 8L * this.internalEdgeWeights.length;
+		}
+		if (this.originalNodeCounts != null) {
+			size += 4L * this.originalNodeCounts.length;
+		}
+		if (this.edgeIndex != null) {
+			size += this.edgeIndex.getSize();
+		}
+		return size;
+	}
+
+	/*
+	 * memory used off heap by the arrays of the graph in bytes
+	 */
+	public long getOffHeapSize() {
+		return this.offHeapStorage == null ? 0 : this.offHeapStorage.getSize();
+	}
+
 	/*
 	 * setters & getters
 	 */
@@ -257,39 +471,65 @@ public class Graph {
 		return numberOfNodes;
 	}
 
-	public void setNumberOfNodes(int numberOfNodes) {
-		this.numberOfNodes = numberOfNodes;
-	}
-
 	public long getNumberOfEdges() {
 		return numberOfEdges;
 	}
 
-	public void setNumberOfEdges(long numberOfEdges) {
-		this.numberOfEdges = numberOfEdges;
+	public int[] getXadj() {
+		this.moveOnHeap();
+		return xadj;
 	}
 
-	public Node[] getNodes() {
-		return nodes;
+	public int[] getAdjncy() {
+		this.moveOnHeap();
+		return adjncy;
 	}
 
-	public void setNodes(Node[] nodes) {
-		this.nodes = nodes;
+	public int[] getAdjwgt() {
+		this.moveOnHeap();
+		return adjwgt;
 	}
 
-	public HashMap<Tuple<Integer, Integer>, Edge> getNodesEdgesMap() {
-		return nodesEdgesMap;
+	public int[] getVwgt() {
+		this.moveOnHeap();
+		return vwgt;
 	}
 
-	public void setNodesEdgesMap(HashMap<Tuple<Integer, Integer>, Edge> nodesEdgesMap) {
-		this.nodesEdgesMap = nodesEdgesMap;
+	public int getNumberOfConstraints() {
+		return numberOfConstraints;
 	}
 
-	public Edge[] getEdges() {
-		return edges;
+	public int[] getConstraintsWeights() {
+		return constraintsWeights;
 	}
 
-	public void setEdges(Edge[] edges) {
-		this.edges = edges;
+	public long[] getInternalEdgeWeights() {
+		return internalEdgeWeights;
+	}
+
+	public int[] getOriginalNodeCounts() {
+		return originalNodeCounts;
+	}
+
+	public EdgeIndex getEdgeIndex() {
+		if (this.edgeIndex == null) {
+			this.moveOnHeap();
+			this.edgeIndex = new EdgeIndex(this.xadj, this.adjncy);
+		}
+		return edgeIndex;
+	}
+
+	public Node[] getNodes() {
+		if (this.nodes == null) {
+			this.createNodesView();
+		}
+		return nodes;
+	}
+
+	public Edge[] getEdges() {
+		if (this.edges == null) {
+			this.createNodesView();
+		}
+		return edges;
 	}
 }
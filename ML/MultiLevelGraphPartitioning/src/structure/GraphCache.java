@@ -0,0 +1,272 @@
+package structure;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.zip.CRC32;
+
+/*
+ * Binary cache of a graph file, stored next to it as <file>.bin
+ * the adjacency arrays are written as they are, so loading them is
+ * a memory mapped copy instead of parsing text
+ *
+ * all values are little-endian
+ * header (64 bytes): magic, version, source file size, source file last modified,
+ * number of nodes, adjacency length, number of constraints, CRC32 of the arrays,
+ * CRC32 of the sampled windows of the arrays, CRC32 of the header before it
+ * then the arrays: xadj, adjncy, adjwgt, vwgt, [constraints weights if ncon > 1]
+ *
+ * the cache is ignored if the source file changed, the version is different,
+ * the size does not match the header or a checksum does not match
+ *
+ * a load checks the header and SAMPLE_COUNT windows of SAMPLE_SIZE bytes spread over the arrays
+ * before copying them, then the CRC of the whole arrays, computed on the mapped windows
+ * while they are copied, the offsets in xadj and the range of every neighbor in adjncy,
+ * so a corrupt cache is rejected instead of giving a wrong graph or failing in the algorithms
+ *
+ * a partially written cache is never read (it is moved over the cache once written),
+ * if fullCheck is cleared the CRC of the whole arrays is skipped
+ */
+public class GraphCache {
+
+	public static final String EXTENSION = ".bin";
+	private static final int MAGIC = 0x43474C4D; // "MLGC"
+	private static final int VERSION = 2;
+	private static final int HEADER_SIZE = 64;
+	private static final int SAMPLE_COUNT = 64;
+	private static final int SAMPLE_SIZE = 1 << 12;
+	// arrays are mapped and written in windows of at most this size
+	private static final int WINDOW_SIZE = 1 << 30;
+	private static final int WRITE_BUFFER_SIZE = 1 << 20;
+
+	private String fileSrc;
+	private String cacheSrc;
+	private boolean fullCheck = true;
+
+	public GraphCache(String fileSrc) {
+		this.fileSrc = fileSrc;
+		this.cacheSrc = fileSrc + EXTENSION;
+	}
+
+	/*
+	 * This function returns the cached graph,
+	 * or null if there is no valid cache for the file
+	 */
+	public Graph read() throws IOException {
+		File source = new File(this.fileSrc);
+		File cache = new File(this.cacheSrc);
+		if (!cache.isFile() || cache.length() < HEADER_SIZE) {
+			return null;
+		}
+		try (FileChannel channel = FileChannel.open(cache.toPath(), StandardOpenOption.READ)) {
+			ByteBuffer header = ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+			while (header.hasRemaining() && channel.read(header) >= 0) {
+			}
+			header.flip();
+			CRC32 headerCrc = new CRC32();
+			headerCrc.update(header.array(), 0, HEADER_SIZE - 8);
+			if (header.getLong(HEADER_SIZE - 8) != headerCrc.getValue()) {
+				return null;
+			}
+			if (header.getInt() != MAGIC || header.getInt() != VERSION || header.getLong() != source.length()
+					|| header.getLong() != source.lastModified()) {
+				return null;
+			}
+			int numberOfNodes = header.getInt();
+			long adjacencyLength = header.getLong();
+			int numberOfConstraints = header.getInt();
+			long checksum = header.getLong();
+			long sampleChecksum = header.getLong();
+			long constraintsLength = numberOfConstraints > 1 ? (long) numberOfNodes * numberOfConstraints : 0;
+			long payload = 4L * ((numberOfNodes + 1L) + 2 * adjacencyLength + numberOfNodes + constraintsLength);
+			if (numberOfNodes < 0 || adjacencyLength < 0 || adjacencyLength > Integer.MAX_VALUE
+					|| numberOfConstraints < 1 || constraintsLength > Integer.MAX_VALUE
+					|| channel.size() != HEADER_SIZE + payload) {
+				return null;
+			}
+			if (sampleChecksum(channel, payload) != sampleChecksum) {
+				return null;
+			}
+
+			CRC32 crc = this.fullCheck ? new CRC32() : null;
+			long position = HEADER_SIZE;
+			int[] xadj = new int[numberOfNodes + 1];
+			position = readInts(channel, position, xadj, crc);
+			int[] adjncy = new int[(int) adjacencyLength];
+			position = readInts(channel, position, adjncy, crc);
+			int[] adjwgt = new int[(int) adjacencyLength];
+			position = readInts(channel, position, adjwgt, crc);
+			int[] vwgt = new int[numberOfNodes];
+			position = readInts(channel, position, vwgt, crc);
+			int[] constraintsWeights = null;
+			if (numberOfConstraints > 1) {
+				constraintsWeights = new int[(int) constraintsLength];
+				position = readInts(channel, position, constraintsWeights, crc);
+			}
+			if (crc != null && crc.getValue() != checksum) {
+				return null;
+			}
+			// the offsets and the neighbors are checked so a corrupt row fails here instead of in the algorithms
+			if (xadj[0] != 0 || xadj[numberOfNodes] != adjacencyLength) {
+				return null;
+			}
+			for (int i = 0; i < numberOfNodes; i++) {
+				if (xadj[i] > xadj[i + 1]) {
+					return null;
+				}
+			}
+			for (int j = 0; j < adjacencyLength; j++) {
+				if (adjncy[j] < 0 || adjncy[j] >= numberOfNodes) {
+					return null;
+				}
+			}
+
+			Graph graph = new Graph(xadj, adjncy, adjwgt, vwgt);
+			if (constraintsWeights != null) {
+				graph.setConstraintsWeights(numberOfConstraints, constraintsWeights);
+			}
+			return graph;
+		}
+	}
+
+	/*
+	 * This function writes the graph to a temporary file then moves it
+	 * over the cache, so a partially written cache is never read
+	 */
+	public void write(Graph graph) throws IOException {
+		File source = new File(this.fileSrc);
+		Path cache = Paths.get(this.cacheSrc);
+		Path tmp = Paths.get(this.cacheSrc + ".tmp");
+		graph.moveOnHeap();
+		try {
+			try (FileChannel channel = FileChannel.open(tmp, StandardOpenOption.CREATE, StandardOpenOption.READ,
+					StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING)) {
+				ByteBuffer buffer = ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+				CRC32 crc = new CRC32();
+				channel.position(HEADER_SIZE);
+				writeInts(channel, buffer, graph.xadj, graph.xadj.length, crc);
+				writeInts(channel, buffer, graph.adjncy, graph.xadj[graph.numberOfNodes], crc);
+				writeInts(channel, buffer, graph.adjwgt, graph.xadj[graph.numberOfNodes], crc);
+				writeInts(channel, buffer, graph.vwgt, graph.numberOfNodes, crc);
+				if (graph.constraintsWeights != null) {
+					writeInts(channel, buffer, graph.constraintsWeights,
+							graph.numberOfNodes * graph.numberOfConstraints, crc);
+				}
+
+				long payload = channel.position() - HEADER_SIZE;
+				long sampleChecksum = sampleChecksum(channel, payload);
+				buffer.clear();
+				buffer.putInt(MAGIC);
+				buffer.putInt(VERSION);
+				buffer.putLong(source.length());
+				buffer.putLong(source.lastModified());
+				buffer.putInt(graph.numberOfNodes);
+				buffer.putLong(graph.xadj[graph.numberOfNodes]);
+				buffer.putInt(graph.constraintsWeights != null ? graph.numberOfConstraints : 1);
+				buffer.putLong(crc.getValue());
+				buffer.putLong(sampleChecksum);
+				CRC32 headerCrc = new CRC32();
+				ByteBuffer headerBytes = buffer.duplicate();
+				headerBytes.flip();
+				headerCrc.update(headerBytes);
+				buffer.putLong(headerCrc.getValue());
+				buffer.flip();
+				channel.position(0);
+				while (buffer.hasRemaining()) {
+					channel.write(buffer);
+				}
+			}
+			Files.move(tmp, cache, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+		} finally {
+			Files.deleteIfExists(tmp);
+		}
+	}
+
+	/*
+	 * This function returns the CRC32 of SAMPLE_COUNT windows of SAMPLE_SIZE bytes evenly spread over the arrays,
+	 * the first and the last windows included, or of all the arrays if they are smaller
+	 */
+	private static long sampleChecksum(FileChannel channel, long payload) throws IOException {
+		CRC32 crc = new CRC32();
+		ByteBuffer sample = ByteBuffer.allocate(SAMPLE_SIZE);
+		boolean all = payload <= (long) SAMPLE_COUNT * SAMPLE_SIZE;
+		int samples = all ? (int) ((payload + SAMPLE_SIZE - 1) / SAMPLE_SIZE) : SAMPLE_COUNT;
+		for (int k = 0; k < samples; k++) {
+			long offset = all ? (long) k * SAMPLE_SIZE : (payload - SAMPLE_SIZE) * k / (SAMPLE_COUNT - 1);
+			sample.clear();
+			sample.limit((int) Math.min(SAMPLE_SIZE, payload - offset));
+			while (sample.hasRemaining() && channel.read(sample, HEADER_SIZE + offset + sample.position()) >= 0) {
+			}
+			sample.flip();
+			crc.update(sample);
+		}
+		return crc.getValue();
+	}
+
+	private static long readInts(FileChannel channel, long position, int[] values, CRC32 crc) throws IOException {
+		int offset = 0;
+		while (offset < values.length) {
+			int length = Math.min(values.length - offset, WINDOW_SIZE / 4);
+			MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, 4L * length);
+			window.order(ByteOrder.LITTLE_ENDIAN);
+			window.asIntBuffer().get(values, offset, length);
+			if (crc != null) {
+				crc.update(window);
+			}
+			offset += length;
+			position += 4L * length;
+		}
+		return position;
+	}
+
+	private static void writeInts(FileChannel channel, ByteBuffer buffer, int[] values, int length, CRC32 crc)
+			throws IOException {
+		buffer.clear();
+		IntBuffer ints = buffer.asIntBuffer();
+		int offset = 0;
+		while (offset < length) {
+			int count = Math.min(length - offset, ints.capacity());
+			ints.clear();
+			ints.put(values, offset, count);
+			buffer.clear();
+			buffer.limit(4 * count);
+			crc.update(buffer.duplicate());
+			while (buffer.hasRemaining()) {
+				channel.write(buffer);
+			}
+			offset += count;
+		}
+	}
+
+	/*
+	 * Setters & Getters
+	 */
+	public String getFileSrc() {
+		return fileSrc;
+	}
+
+	public String getCacheSrc() {
+		return cacheSrc;
+	}
+
+	public boolean isFullCheck() {
+		return fullCheck;
+	}
+
+	/*
+	 * set by default, if cleared a load does not verify the CRC32 of the whole arrays,
+	 * only the sampled windows and the offsets and neighbors
+	 */
+	public void setFullCheck(boolean fullCheck) {
+		this.fullCheck = fullCheck;
+	}
+}
@@ -0,0 +1,197 @@
+package structure;
+
+import java.util.ArrayList;
+import java.util.concurrent.Callable;
+
+/*
+ * The levels of a multilevel coarsening, level 0 is the original graph
+ * and level i + 1 is the contraction of level i by the coarse map of level i,
+ * cmap[v] is the index of the node of level i + 1 that contains the node with index v of level i
+ *
+ * only the adjacency arrays of the levels and the coarse maps are kept,
+ * values per node (a partition, node weights ...) are moved between levels
+ * with the project functions
+ *
+ * the work arrays of the contractions are kept in scratch buffers that are shared
+ * by all the levels, the matchings of the levels can use them too (Matching.setScratchBuffers)
+ */
+public class GraphHierarchy {
+
+	// a projection is not split into ranges of less nodes
+	private static final int MIN_PROJECTION_RANGE = 1 << 16;
+
+	private ArrayList<Graph> graphs;
+	private ArrayList<int[]> cmaps;
+	private ScratchBuffers scratchBuffers;
+
+	public GraphHierarchy(Graph graph) {
+		this.graphs = new ArrayList<Graph>();
+		this.cmaps = new ArrayList<int[]>();
+		this.scratchBuffers = new ScratchBuffers();
+		this.graphs.add(graph);
+	}
+
+	/*
+	 * This function contracts the coarsest level by cmap and adds the result as a new level,
+	 * if offHeap is true the arrays of the previous level are moved off heap
+	 * the new level stays on heap since it is the one matched and contracted next,
+	 * so the heap holds two levels while coarsening, the others are off heap
+	 * until they are accessed again while uncoarsening
+	 */
+	public Graph addLevel(int[] cmap, boolean offHeap, int parallelism) {
+		Graph graph = this.getCoarsestGraph();
+		if (cmap.length != graph.getNumberOfNodes()) {
+			throw new IllegalArgumentException("coarse map of " + cmap.length + " nodes for a level of "
+					+ graph.getNumberOfNodes() + " nodes");
+		}
+		Graph coarseGraph = new CoarseGraph(graph, cmap, false, parallelism, this.scratchBuffers);
+		if (offHeap) {
+			graph.moveOffHeap();
+		}
+		this.graphs.add(coarseGraph);
+		this.cmaps.add(cmap);
+		return coarseGraph;
+	}
+
+	public Graph addLevel(int[] cmap) {
+		return this.addLevel(cmap, false, 1);
+	}
+
+	/*
+	 * This function moves values per node of the given level to the finer level - 1,
+	 * each node takes the value of the coarse node that contains it
+	 */
+	public int[] projectToFiner(int level, int[] values) {
+		return this.projectToFiner(level, values, 1);
+	}
+
+	/*
+	 * the projection runs on parallelism threads, each one projects a range of the finer nodes
+	 */
+	public int[] projectToFiner(int level, final int[] values, int parallelism) {
+		final int[] cmap = this.getCoarseMap(level - 1);
+		final int[] fineValues = new int[cmap.length];
+		int numberOfRanges = Math.max(1, Math.min(parallelism, cmap.length / MIN_PROJECTION_RANGE));
+		if (numberOfRanges == 1) {
+			project(cmap, values, fineValues, 0, cmap.length);
+			return fineValues;
+		}
+		ArrayList<Callable<Void>> tasks = new ArrayList<Callable<Void>>(numberOfRanges);
+		for (int r = 0; r < numberOfRanges; r++) {
+			final int start = (int) ((long) cmap.length * r / numberOfRanges);
+			final int end = (int) ((long) cmap.length * (r + 1) / numberOfRanges);
+			tasks.add(new Callable<Void>() {
+				@Override
+				public Void call() {
+					project(cmap, values, fineValues, start, end);
+					return null;
+				}
+			});
+		}
+		ParallelTasks.invokeAll(tasks);
+		return fineValues;
+	}
+
+	private static void project(int[] cmap, int[] values, int[] fineValues, int start, int end) {
+		for (int i = start; i < end; i++) {
+			fineValues[i] = values[cmap[i]];
+		}
+	}
+
+	/*
+	 * This function moves values per node of the given level to the coarser level + 1,
+	 * each coarse node takes the value of its child with the smallest index
+	 */
+	public int[] projectToCoarser(int level, int[] values) {
+		int[] cmap = this.getCoarseMap(level);
+		int[] coarseValues = new int[this.getGraph(level + 1).getNumberOfNodes()];
+		for (int i = cmap.length - 1; i >= 0; i--) {
+			coarseValues[cmap[i]] = values[i];
+		}
+		return coarseValues;
+	}
+
+	/*
+	 * This function sums values per node of the given level into the coarser level + 1,
+	 * the node weights of level + 1 are the sums of the node weights of level
+	 */
+	public long[] sumToCoarser(int level, long[] values) {
+		int[] cmap = this.getCoarseMap(level);
+		long[] coarseValues = new long[this.getGraph(level + 1).getNumberOfNodes()];
+		for (int i = 0; i < cmap.length; i++) {
+			coarseValues[cmap[i]] += values[i];
+		}
+		return coarseValues;
+	}
+
+	/*
+	 * This function returns the map from the nodes of level fromLevel
+	 * to the nodes of the coarser level toLevel that contain them
+	 */
+	public int[] getCoarseMap(int fromLevel, int toLevel) {
+		int[] map = new int[this.getGraph(fromLevel).getNumberOfNodes()];
+		for (int i = 0; i < map.length; i++) {
+			map[i] = i;
+		}
+		for (int level = fromLevel; level < toLevel; level++) {
+			int[] cmap = this.getCoarseMap(level);
+			for (int i = 0; i < map.length; i++) {
+				map[i] = cmap[map[i]];
+			}
+		}
+		return map;
+	}
+
+	/*
+	 * memory used by the levels and the coarse maps in bytes,
+	 * on heap and off heap, the original graph is included and the scratch buffers are not
+	 */
+	public long getMemoryFootprint() {
+		return this.getHeapSize() + this.getOffHeapSize();
+	}
+
+	public long getHeapSize() {
+		long size = 0;
+		for (Graph graph : this.graphs) {
+			size += graph.getHeapSize();
+		}
+		for (int[] cmap : this.cmaps) {
+			size += 4L * cmap.length;
+		}
+		return size;
+	}
+
+	public long getOffHeapSize() {
+		long size = 0;
+		for (Graph graph : this.graphs) {
+			size += graph.getOffHeapSize();
+		}
+		return size;
+	}
+
+	/*
+	 * Getters
+	 */
+	public int getNumberOfLevels() {
+		return this.graphs.size();
+	}
+
+	public Graph getGraph(int level) {
+		return this.graphs.get(level);
+	}
+
+	public ScratchBuffers getScratchBuffers() {
+		return scratchBuffers;
+	}
+
+	public Graph getCoarsestGraph() {
+		return this.graphs.get(this.graphs.size() - 1);
+	}
+
+	/*
+	 * coarse map from level to level + 1
+	 */
+	public int[] getCoarseMap(int level) {
+		return this.cmaps.get(level);
+	}
+}
@@ -0,0 +1,685 @@
+package structure;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+
+/*
+ * Reads METIS graph files into the adjacency arrays of a Graph
+ * the file is memory mapped and the numbers are parsed directly from the bytes
+ * in one pass, no lines or strings are created
+ *
+ * first line (header): number of nodes, number of edges, [fmt], [ncon]
+ * then a line for each node: [size] [ncon weights] neighbor ID [edge weight] ...
+ * fmt has three digits, node sizes (100), node weights (10), edge weights (1)
+ * missing weights are set to 1, node sizes are skipped
+ * lines starting with % are comments
+ *
+ * malformed files are rejected while parsing, without a second pass
+ * the symmetry of the edges is not checked
+ * files with more than Graph.MAX_ADJACENCY_LENGTH / 2 edges are rejected by their header
+ *
+ * if parallelism is more than 1, large files are split into line aligned chunks
+ * parsed in parallel, then the chunks are stitched using prefix sums
+ * of their nodes and adjacency counts
+ *
+ * if the cache is enabled, the graph is loaded from its binary cache
+ * when it is valid, otherwise the cache is written after parsing (see GraphCache)
+ *
+ * readCompressed reads the graph into compressed storage (see CompressedGraph)
+ * a few chunks at a time, the cache is not used
+ */
+public class GraphReader {
+
+	// files are mapped in windows, a single mapping can not exceed 2GB
+	private static final long MAX_WINDOW_SIZE = 1 << 30;
+	// files smaller than this are always parsed by one thread
+	private static final long MIN_CHUNK_SIZE = 1 << 20;
+	private static final int CHUNKS_PER_THREAD = 4;
+	// size of the chunks of a compressed read, only the arrays of parallelism chunks exist at a time
+	private static final long COMPRESSED_CHUNK_SIZE = 1 << 26;
+
+	private String fileSrc;
+	private int parallelism;
+	private boolean cacheEnabled;
+	private boolean loadedFromCache;
+	private long fileSize;
+	private long loadTime;
+
+	private int numberOfNodes;
+	private long numberOfEdges;
+	private boolean hasNodeSizes;
+	private boolean hasNodeWeights;
+	private boolean hasEdgeWeights;
+	private int numberOfConstraints;
+	// number of values before the neighbors in a node line
+	private int nodeLinePrefix;
+
+	public GraphReader(String fileSrc) {
+		this.fileSrc = fileSrc;
+		this.parallelism = 1;
+	}
+
+	public Graph read() throws IOException {
+		long start = System.nanoTime();
+		Graph graph;
+		GraphCache cache = new GraphCache(this.fileSrc);
+		if (this.cacheEnabled) {
+			graph = cache.read();
+			if (graph != null) {
+				this.loadedFromCache = true;
+				this.fileSize = new File(cache.getCacheSrc()).length();
+				this.loadTime = System.nanoTime() - start;
+				return graph;
+			}
+		}
+		this.loadedFromCache = false;
+		try (FileChannel channel = FileChannel.open(Paths.get(this.fileSrc), StandardOpenOption.READ)) {
+			this.fileSize = channel.size();
+			long bodyStart = this.readHeader(channel);
+			long bodySize = this.fileSize - bodyStart;
+			if (this.parallelism > 1 && bodySize >= 2 * MIN_CHUNK_SIZE) {
+				graph = this.readParallel(channel, bodyStart);
+			} else {
+				graph = this.readSequential(channel, bodyStart);
+			}
+		}
+		this.loadTime = System.nanoTime() - start;
+		if (this.cacheEnabled) {
+			// the graph is already loaded, a cache that can not be written is not an error
+			try {
+				cache.write(graph);
+			} catch (IOException e) {
+				System.err.println(cache.getCacheSrc() + ": cache not written, " + e.getMessage());
+			}
+		}
+		return graph;
+	}
+
+	/*
+	 * This function parses the header line, and returns the position
+	 * where the node lines start
+	 */
+	private long readHeader(FileChannel channel) throws IOException {
+		long[] header = new long[4];
+		int headerIndex = 0;
+		long value = 0;
+		boolean inNumber = false;
+		boolean lineStart = true;
+		boolean inComment = false;
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		long position = 0;
+		while (true) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			if (read <= 0) {
+				throw new IOException(this.fileSrc + ": missing header line");
+			}
+			for (int i = 0; i < read; i++) {
+				byte c = buffer.get(i);
+				if (inComment) {
+					if (c == '\n') {
+						inComment = false;
+					}
+				} else if (c >= '0' && c <= '9') {
+					if (value <= Integer.MAX_VALUE) {
+						value = value * 10 + (c - '0');
+					}
+					inNumber = true;
+				} else {
+					if (inNumber) {
+						if (headerIndex == header.length) {
+							throw new IOException(this.fileSrc + ": header has more than " + header.length + " values");
+						}
+						header[headerIndex] = value;
+						headerIndex++;
+						value = 0;
+						inNumber = false;
+						lineStart = false;
+					}
+					if (c == '\n' && !lineStart) {
+						this.setHeader(header, headerIndex);
+						return position + i + 1;
+					} else if (c == '%' && lineStart) {
+						inComment = true;
+					} else if (c != ' ' && c != '\t' && c != '\r' && c != '\n') {
+						throw new IOException(this.fileSrc + ": unexpected character '" + (char) c + "' in header");
+					}
+				}
+			}
+			position += read;
+		}
+	}
+
+	private void setHeader(long[] header, int headerLength) throws IOException {
+		if (headerLength < 2) {
+			throw new IOException(this.fileSrc + ": header must contain number of nodes and edges");
+		}
+		if (header[0] >= Graph.MAX_ADJACENCY_LENGTH) {
+			throw new IOException(this.fileSrc + ": " + header[0] + " nodes, a graph can have at most "
+					+ (Graph.MAX_ADJACENCY_LENGTH - 1) + " nodes");
+		}
+		if (2 * header[1] > Graph.MAX_ADJACENCY_LENGTH) {
+			throw new IOException(this.fileSrc + ": " + header[1] + " edges, a graph can have at most "
+					+ Graph.MAX_ADJACENCY_LENGTH / 2 + " edges (Graph.MAX_ADJACENCY_LENGTH adjacency entries)");
+		}
+		this.numberOfNodes = (int) header[0];
+		this.numberOfEdges = header[1];
+		long fmt = headerLength > 2 ? header[2] : 0;
+		if (fmt > 111 || fmt % 10 > 1 || fmt / 10 % 10 > 1) {
+			throw new IOException(this.fileSrc + ": invalid fmt " + fmt);
+		}
+		this.hasNodeSizes = fmt / 100 == 1;
+		this.hasNodeWeights = fmt / 10 % 10 == 1;
+		this.hasEdgeWeights = fmt % 10 == 1;
+		this.numberOfConstraints = 1;
+		if (headerLength > 3) {
+			if (!this.hasNodeWeights && header[3] > 1) {
+				throw new IOException(this.fileSrc + ": ncon " + header[3] + " requires node weights in fmt");
+			}
+			if (header[3] < 1 || header[3] > Short.MAX_VALUE) {
+				throw new IOException(this.fileSrc + ": invalid ncon " + header[3]);
+			}
+			this.numberOfConstraints = (int) header[3];
+		}
+		this.nodeLinePrefix = (this.hasNodeSizes ? 1 : 0) + (this.hasNodeWeights ? this.numberOfConstraints : 0);
+	}
+
+	private Graph readSequential(FileChannel channel, long bodyStart) throws IOException {
+		ChunkParser parser = new ChunkParser(this.numberOfNodes, (int) (2 * this.numberOfEdges));
+		for (long position = bodyStart; position < this.fileSize; position += MAX_WINDOW_SIZE) {
+			long size = Math.min(MAX_WINDOW_SIZE, this.fileSize - position);
+			parser.parse(channel.map(FileChannel.MapMode.READ_ONLY, position, size));
+		}
+		parser.finish();
+		return this.stitch(new ChunkParser[] { parser }, null);
+	}
+
+	private Graph readParallel(FileChannel channel, long bodyStart) throws IOException {
+		long chunkSize = Math.max(MIN_CHUNK_SIZE,
+				(this.fileSize - bodyStart) / ((long) this.parallelism * CHUNKS_PER_THREAD));
+		ArrayList<Long> bounds = this.splitLines(channel, bodyStart, Math.min(chunkSize, MAX_WINDOW_SIZE));
+		// parse chunks in parallel
+		ForkJoinPool pool = new ForkJoinPool(this.parallelism);
+		try {
+			ArrayList<ChunkParser> chunks = this.invokeAll(pool,
+					this.parseTasks(channel, bodyStart, bounds, 0, bounds.size() - 1));
+			return this.stitch(chunks.toArray(new ChunkParser[chunks.size()]), pool);
+		} finally {
+			pool.shutdown();
+		}
+	}
+
+	/*
+	 * This function reads the graph into compressed storage without creating its adjacency arrays,
+	 * the file is split into line aligned chunks of COMPRESSED_CHUNK_SIZE bytes, parallelism chunks
+	 * are parsed and compressed at a time, then their arrays are dropped
+	 * so the heap holds the compressed graph and the arrays of parallelism chunks at most
+	 */
+	public CompressedGraph readCompressed() throws IOException {
+		long start = System.nanoTime();
+		this.loadedFromCache = false;
+		CompressedGraph graph;
+		try (FileChannel channel = FileChannel.open(Paths.get(this.fileSrc), StandardOpenOption.READ)) {
+			this.fileSize = channel.size();
+			long bodyStart = this.readHeader(channel);
+			ArrayList<Long> bounds = this.splitLines(channel, bodyStart, COMPRESSED_CHUNK_SIZE);
+			graph = new CompressedGraph(this.numberOfNodes, this.numberOfEdges, this.numberOfConstraints,
+					this.hasEdgeWeights);
+			int batchSize = Math.max(1, this.parallelism);
+			ForkJoinPool pool = batchSize > 1 ? new ForkJoinPool(batchSize) : null;
+			try {
+				int nodeOffset = 0;
+				long adjLength = 0;
+				for (int first = 0; first < bounds.size() - 1; first += batchSize) {
+					int last = Math.min(bounds.size() - 1, first + batchSize);
+					final ArrayList<ChunkParser> chunks = this.invokeAll(pool,
+							this.parseTasks(channel, bodyStart, bounds, first, last));
+					ArrayList<Callable<CompressedGraph.Rows>> tasks = new ArrayList<Callable<CompressedGraph.Rows>>(
+							chunks.size());
+					final int[] chunkNodes = new int[chunks.size()];
+					for (int i = 0; i < chunks.size(); i++) {
+						final ChunkParser chunk = chunks.get(i);
+						final int firstNode = nodeOffset;
+						final int count = this.countNodes(chunk, nodeOffset);
+						chunkNodes[i] = count;
+						nodeOffset += count;
+						adjLength += chunk.adjIndex;
+						tasks.add(new Callable<CompressedGraph.Rows>() {
+							@Override
+							public CompressedGraph.Rows call() {
+								return CompressedGraph.encode(chunk.xadj, chunk.adjncy, chunk.adjwgt, firstNode, count,
+										hasEdgeWeights);
+							}
+						});
+					}
+					ArrayList<CompressedGraph.Rows> rows = this.invokeAll(pool, tasks);
+					for (int i = 0; i < chunks.size(); i++) {
+						graph.append(rows.get(i), chunks.get(i).vwgt, chunks.get(i).constraintsWeights);
+					}
+				}
+				this.checkTotals(nodeOffset, adjLength);
+			} finally {
+				if (pool != null) {
+					pool.shutdown();
+				}
+			}
+		}
+		graph.trim();
+		this.loadTime = System.nanoTime() - start;
+		return graph;
+	}
+
+	/*
+	 * This function splits the body of the file into line aligned chunks of about chunkSize bytes,
+	 * and returns their bounds, chunk i is bounds[i] ... bounds[i + 1] - 1
+	 */
+	private ArrayList<Long> splitLines(FileChannel channel, long bodyStart, long chunkSize) throws IOException {
+		ArrayList<Long> bounds = new ArrayList<Long>();
+		bounds.add(bodyStart);
+		long position = bodyStart;
+		while (position + chunkSize < this.fileSize) {
+			position = this.nextLineStart(channel, position + chunkSize);
+			if (position >= this.fileSize) {
+				break;
+			}
+			bounds.add(position);
+		}
+		bounds.add(this.fileSize);
+		return bounds;
+	}
+
+	/*
+	 * This function returns the tasks parsing the chunks first ... last - 1,
+	 * the chunk arrays are sized by the share of the file the chunk covers
+	 */
+	private ArrayList<Callable<ChunkParser>> parseTasks(final FileChannel channel, long bodyStart,
+			ArrayList<Long> bounds, int first, int last) {
+		final double nodesPerByte = (double) this.numberOfNodes / Math.max(1, this.fileSize - bodyStart);
+		final double adjacencyPerByte = 2.0 * this.numberOfEdges / Math.max(1, this.fileSize - bodyStart);
+		ArrayList<Callable<ChunkParser>> tasks = new ArrayList<Callable<ChunkParser>>(last - first);
+		for (int i = first; i < last; i++) {
+			final long chunkStart = bounds.get(i);
+			final long chunkEnd = bounds.get(i + 1);
+			tasks.add(new Callable<ChunkParser>() {
+				@Override
+				public ChunkParser call() throws IOException {
+					long chunkSize = chunkEnd - chunkStart;
+					ChunkParser parser = new ChunkParser((int) (1.1 * nodesPerByte * chunkSize) + 16,
+							(int) (1.1 * adjacencyPerByte * chunkSize) + 16);
+					parser.parse(channel.map(FileChannel.MapMode.READ_ONLY, chunkStart, chunkSize));
+					parser.finish();
+					return parser;
+				}
+			});
+		}
+		return tasks;
+	}
+
+	/*
+	 * This function runs the tasks on the pool and returns their results in order,
+	 * without a pool the tasks run on the calling thread
+	 */
+	private <T> ArrayList<T> invokeAll(ForkJoinPool pool, ArrayList<Callable<T>> tasks) throws IOException {
+		ArrayList<T> results = new ArrayList<T>(tasks.size());
+		try {
+			if (pool == null) {
+				for (Callable<T> task : tasks) {
+					results.add(task.call());
+				}
+				return results;
+			}
+			for (Future<T> future : pool.invokeAll(tasks)) {
+				results.add(future.get());
+			}
+		} catch (IOException | RuntimeException e) {
+			throw e;
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IOException(this.fileSrc + ": loading interrupted", e);
+		} catch (ExecutionException e) {
+			if (e.getCause() instanceof IOException) {
+				throw (IOException) e.getCause();
+			}
+			throw new IOException(this.fileSrc + ": " + e.getCause(), e.getCause());
+		} catch (Exception e) {
+			throw new IOException(this.fileSrc + ": " + e, e);
+		}
+		return results;
+	}
+
+	/*
+	 * This function returns the position after the first new line
+	 * found at or after the given position
+	 */
+	private long nextLineStart(FileChannel channel, long position) throws IOException {
+		ByteBuffer buffer = ByteBuffer.allocate(4096);
+		while (position < this.fileSize) {
+			buffer.clear();
+			int read = channel.read(buffer, position);
+			for (int i = 0; i < read; i++) {
+				if (buffer.get(i) == '\n') {
+					return position + i + 1;
+				}
+			}
+			position += read;
+		}
+		return this.fileSize;
+	}
+
+	/*
+	 * This function joins the parsed chunks into the graph arrays,
+	 * the nodes of each chunk start after the nodes of the previous chunks
+	 * if a pool is given the chunks are copied in parallel
+	 */
+	private Graph stitch(final ChunkParser[] chunks, ForkJoinPool pool) throws IOException {
+		int[] nodeOffsets = new int[chunks.length + 1];
+		// summed as long, so a file with more neighbors than its header fails here instead of overflowing
+		long[] adjOffsets = new long[chunks.length + 1];
+		for (int i = 0; i < chunks.length; i++) {
+			nodeOffsets[i + 1] = nodeOffsets[i] + this.countNodes(chunks[i], nodeOffsets[i]);
+			adjOffsets[i + 1] = adjOffsets[i] + chunks[i].adjIndex;
+			if (adjOffsets[i + 1] > Graph.MAX_ADJACENCY_LENGTH) {
+				throw new IOException(this.fileSrc + ": more than " + Graph.MAX_ADJACENCY_LENGTH
+						+ " neighbors (Graph.MAX_ADJACENCY_LENGTH adjacency entries)");
+			}
+		}
+		this.checkTotals(nodeOffsets[chunks.length], adjOffsets[chunks.length]);
+		int adjLength = (int) adjOffsets[chunks.length];
+
+		// a single chunk holding exactly the graph is used as it is
+		if (chunks.length == 1 && chunks[0].numberOfLines == this.numberOfNodes
+				&& chunks[0].xadj.length == this.numberOfNodes + 1 && chunks[0].adjncy.length == adjLength) {
+			Graph graph = new Graph(chunks[0].xadj, chunks[0].adjncy, chunks[0].adjwgt, chunks[0].vwgt);
+			if (this.numberOfConstraints > 1) {
+				graph.setConstraintsWeights(this.numberOfConstraints,
+						Arrays.copyOf(chunks[0].constraintsWeights, this.numberOfNodes * this.numberOfConstraints));
+			}
+			return graph;
+		}
+
+		final int[] xadj = new int[this.numberOfNodes + 1];
+		final int[] adjncy = new int[adjLength];
+		final int[] adjwgt = new int[adjLength];
+		final int[] vwgt = new int[this.numberOfNodes];
+		final int[] constraintsWeights = this.numberOfConstraints > 1
+				? new int[this.numberOfNodes * this.numberOfConstraints] : null;
+		if (pool == null) {
+			for (int i = 0; i < chunks.length; i++) {
+				copyChunk(chunks[i], nodeOffsets[i], nodeOffsets[i + 1] - nodeOffsets[i], (int) adjOffsets[i], xadj,
+						adjncy, adjwgt, vwgt, constraintsWeights);
+			}
+		} else {
+			ArrayList<Callable<Void>> tasks = new ArrayList<Callable<Void>>(chunks.length);
+			for (int i = 0; i < chunks.length; i++) {
+				final ChunkParser chunk = chunks[i];
+				final int nodeOffset = nodeOffsets[i];
+				final int chunkNodes = nodeOffsets[i + 1] - nodeOffset;
+				final int adjOffset = (int) adjOffsets[i];
+				tasks.add(new Callable<Void>() {
+					@Override
+					public Void call() {
+						copyChunk(chunk, nodeOffset, chunkNodes, adjOffset, xadj, adjncy, adjwgt, vwgt,
+								constraintsWeights);
+						return null;
+					}
+				});
+			}
+			this.invokeAll(pool, tasks);
+		}
+		Graph graph = new Graph(xadj, adjncy, adjwgt, vwgt);
+		if (constraintsWeights != null) {
+			graph.setConstraintsWeights(this.numberOfConstraints, constraintsWeights);
+		}
+		return graph;
+	}
+
+	/*
+	 * This function returns the number of nodes of a parsed chunk whose first line is node nodeOffset,
+	 * the lines after the last node must be empty
+	 */
+	private int countNodes(ChunkParser chunk, int nodeOffset) throws IOException {
+		int chunkNodes = Math.min(chunk.numberOfLines, Math.max(0, this.numberOfNodes - nodeOffset));
+		if (chunk.errorLine < chunkNodes) {
+			throw new IOException(
+					this.fileSrc + ": node " + (nodeOffset + chunk.errorLine + 1) + ": " + chunk.errorMessage);
+		}
+		if (chunk.xadj[chunkNodes] != chunk.adjIndex) {
+			throw new IOException(this.fileSrc + ": more node lines than " + this.numberOfNodes);
+		}
+		return chunkNodes;
+	}
+
+	private void checkTotals(int numberOfLines, long adjLength) throws IOException {
+		if (numberOfLines < this.numberOfNodes) {
+			throw new IOException(
+					this.fileSrc + ": found " + numberOfLines + " node lines, expected " + this.numberOfNodes);
+		}
+		if (adjLength != 2 * this.numberOfEdges) {
+			throw new IOException(this.fileSrc + ": found " + adjLength + " neighbors, expected "
+					+ 2 * this.numberOfEdges + " (twice the number of edges)");
+		}
+	}
+
+	private void copyChunk(ChunkParser chunk, int nodeOffset, int chunkNodes, int adjOffset, int[] xadj,
+			int[] adjncy, int[] adjwgt, int[] vwgt, int[] constraintsWeights) {
+		for (int j = 0; j < chunkNodes; j++) {
+			xadj[nodeOffset + j + 1] = adjOffset + chunk.xadj[j + 1];
+		}
+		System.arraycopy(chunk.vwgt, 0, vwgt, nodeOffset, chunkNodes);
+		System.arraycopy(chunk.adjncy, 0, adjncy, adjOffset, chunk.adjIndex);
+		System.arraycopy(chunk.adjwgt, 0, adjwgt, adjOffset, chunk.adjIndex);
+		if (constraintsWeights != null) {
+			System.arraycopy(chunk.constraintsWeights, 0, constraintsWeights, nodeOffset * this.numberOfConstraints,
+					chunkNodes * this.numberOfConstraints);
+		}
+	}
+
+	/*
+	 * Parses node lines of a line aligned part of the file,
+	 * the arrays grow if the expected sizes are exceeded
+	 * the first malformed line is recorded, the reader decides if it is
+	 * an error once it knows which node the line belongs to
+	 */
+	private class ChunkParser {
+		private int numberOfLines;
+		private int adjIndex;
+		private int[] xadj;
+		private int[] adjncy;
+		private int[] adjwgt;
+		private int[] vwgt;
+		private int[] constraintsWeights;
+		private int errorLine = Integer.MAX_VALUE;
+		private String errorMessage;
+
+		// parser state, kept between windows
+		private long value;
+		private boolean inNumber;
+		private boolean lineStart;
+		private boolean inComment;
+		// number of values read in the current line
+		private int lineValues;
+
+		private ChunkParser(int expectedLines, int expectedAdjacency) {
+			this.xadj = new int[expectedLines + 1];
+			this.vwgt = new int[expectedLines];
+			this.adjncy = new int[expectedAdjacency];
+			this.adjwgt = new int[expectedAdjacency];
+			if (numberOfConstraints > 1) {
+				this.constraintsWeights = new int[expectedLines * numberOfConstraints];
+			}
+			this.lineStart = true;
+		}
+
+		private void parse(MappedByteBuffer buffer) throws IOException {
+			int limit = buffer.limit();
+			for (int i = 0; i < limit; i++) {
+				byte c = buffer.get(i);
+				if (this.inComment) {
+					if (c == '\n') {
+						this.inComment = false;
+					}
+				} else if (c >= '0' && c <= '9') {
+					// stop before overflowing, the value is rejected anyway
+					if (this.value <= Integer.MAX_VALUE) {
+						this.value = this.value * 10 + (c - '0');
+					}
+					this.inNumber = true;
+				} else {
+					if (this.inNumber) {
+						this.storeValue();
+					}
+					if (c == '\n') {
+						this.endLine();
+					} else if (c == '%' && this.lineStart) {
+						this.inComment = true;
+					} else if (c != ' ' && c != '\t' && c != '\r') {
+						this.setError("unexpected character '" + (char) c + "'");
+					}
+				}
+			}
+		}
+
+		private void finish() throws IOException {
+			// the last line may not end with a new line
+			if (this.inNumber || !this.lineStart) {
+				this.endLine();
+			}
+		}
+
+		private void setError(String message) {
+			if (this.numberOfLines < this.errorLine) {
+				this.errorLine = this.numberOfLines;
+				this.errorMessage = message;
+			}
+		}
+
+		private void storeValue() {
+			int number = (int) Math.min(this.value, Integer.MAX_VALUE);
+			if (this.value > Integer.MAX_VALUE) {
+				this.setError("value " + this.value + " is too large");
+			}
+			this.value = 0;
+			this.inNumber = false;
+			this.lineStart = false;
+			this.lineValues++;
+			if (this.numberOfLines == this.vwgt.length) {
+				this.growLines();
+			}
+			if (this.lineValues <= nodeLinePrefix) {
+				// node size or weights
+				int weightIndex = this.lineValues - (hasNodeSizes ? 2 : 1);
+				if (weightIndex == 0) {
+					this.vwgt[this.numberOfLines] = number;
+				}
+				if (weightIndex >= 0 && this.constraintsWeights != null) {
+					this.constraintsWeights[this.numberOfLines * numberOfConstraints + weightIndex] = number;
+				}
+			} else if (hasEdgeWeights && (this.lineValues - nodeLinePrefix) % 2 == 0) {
+				// edge weight of the last neighbor
+				if (number <= 0) {
+					this.setError("edge weight must be positive");
+				}
+				this.adjwgt[this.adjIndex - 1] = number;
+			} else {
+				if (number < 1 || number > numberOfNodes) {
+					this.setError("neighbor " + number + " is out of range");
+				}
+				if (this.adjIndex == this.adjncy.length) {
+					if (this.adjIndex == Graph.MAX_ADJACENCY_LENGTH) {
+						this.setError("more than " + Graph.MAX_ADJACENCY_LENGTH + " neighbors");
+						return;
+					}
+					int capacity = (int) Math.min(Graph.MAX_ADJACENCY_LENGTH,
+							Math.max(16L, this.adjncy.length + (this.adjncy.length >> 1)));
+					this.adjncy = Arrays.copyOf(this.adjncy, capacity);
+					this.adjwgt = Arrays.copyOf(this.adjwgt, capacity);
+				}
+				this.adjncy[this.adjIndex] = number - 1;
+				this.adjwgt[this.adjIndex] = 1;
+				this.adjIndex++;
+			}
+		}
+
+		private void endLine() {
+			if (this.inNumber) {
+				this.storeValue();
+			}
+			if (this.numberOfLines == this.vwgt.length) {
+				this.growLines();
+			}
+			// an empty line is a node without neighbors
+			if (this.lineValues < nodeLinePrefix) {
+				this.setError("missing node weights");
+			} else if (hasEdgeWeights && (this.lineValues - nodeLinePrefix) % 2 != 0) {
+				this.setError("missing edge weight");
+			}
+			if (!hasNodeWeights) {
+				this.vwgt[this.numberOfLines] = 1;
+			}
+			this.numberOfLines++;
+			this.xadj[this.numberOfLines] = this.adjIndex;
+			this.lineStart = true;
+			this.lineValues = 0;
+		}
+
+		private void growLines() {
+			int capacity = Math.max(16, this.vwgt.length + (this.vwgt.length >> 1));
+			this.vwgt = Arrays.copyOf(this.vwgt, capacity);
+			this.xadj = Arrays.copyOf(this.xadj, capacity + 1);
+			if (this.constraintsWeights != null) {
+				this.constraintsWeights = Arrays.copyOf(this.constraintsWeights, capacity * numberOfConstraints);
+			}
+		}
+	}
+
+	/*
+	 * Setters & Getters
+	 */
+	public void setParallelism(int parallelism) {
+		this.parallelism = parallelism;
+	}
+
+	public int getParallelism() {
+		return parallelism;
+	}
+
+	public void setCacheEnabled(boolean cacheEnabled) {
+		this.cacheEnabled = cacheEnabled;
+	}
+
+	public boolean isCacheEnabled() {
+		return cacheEnabled;
+	}
+
+	public boolean isLoadedFromCache() {
+		return loadedFromCache;
+	}
+
+	public String getFileSrc() {
+		return fileSrc;
+	}
+
+	public long getFileSize() {
+		return fileSize;
+	}
+
+	// load time in nanoseconds
+	public long getLoadTime() {
+		return loadTime;
+	}
+
+	public double getBytesPerSecond() {
+		return this.fileSize / (this.loadTime / 1e9);
+	}
+}
@@ -1,5 +1,4 @@
 package structure;
-import java.util.HashMap;
 
 /*
  * 
@@ -7,7 +6,9 @@ import java.util.HashMap;
  * Node ID
  * Node Weight
  * Neighbors IDs
- * Edges to Neighbors
+ * Edges to Neighbors, neighborsEdges[i] is the edge to neighbors[i]
+ * 
+ * the edge to a neighbor by its ID is found with Graph.getEdge
  * 
  * This class uses space O(V+E)
  * can be approximated to O(E)
@@ -17,7 +18,6 @@ public class Node {
 	protected int nodeID, nodeWeight, numberOfNeighbors;
 	protected Node[] neighbors;
 	protected Edge[] neighborsEdges;
-	protected HashMap<Integer, Tuple<Node, Edge>> neighborsMap;
 
 	/* First Constructor */
 	public Node(int nodeID) {
@@ -32,14 +32,12 @@ public class Node {
 
 	/* Third Constructor */
 	public Node(int nodeID, int nodeWeight, Node[] neighbors,
-			Edge[] neighborsEdges,
-			HashMap<Integer, Tuple<Node, Edge>> neighborsMap) {
+			Edge[] neighborsEdges) {
 		this.nodeID = nodeID;
 		this.nodeWeight = nodeWeight;
 		this.neighbors = neighbors;
 		this.neighborsEdges = neighborsEdges;
 		this.numberOfNeighbors = neighbors.length;
-		this.neighborsMap = neighborsMap;
 	}
 
 	/* Setter & Getters */
@@ -83,14 +81,6 @@ public class Node {
 		this.neighborsEdges = neighborsEdges;
 	}
 
-	public HashMap<Integer, Tuple<Node, Edge>> getNeighborsMap() {
-		return neighborsMap;
-	}
-
-	public void setNeighborsMap(HashMap<Integer, Tuple<Node, Edge>> neighborsMap) {
-		this.neighborsMap = neighborsMap;
-	}
-
 	/* Class Methods */
 	public void addNeighbors(Node[] neighbors, Edge[] neighborsEdges) {
 		/*
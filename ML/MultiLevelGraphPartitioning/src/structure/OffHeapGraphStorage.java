@@ -0,0 +1,130 @@
+package structure;
+
+/*
+ * Adjacency arrays of a graph stored outside the java heap in direct buffers,
+ * they are not scanned or moved by the garbage collector
+ * and are released when the storage is no longer referenced
+ *
+ * the algorithms work on the heap arrays, so the storage only parks the arrays
+ * of a graph that is not in use (see Graph.moveOffHeap)
+ *
+ * the arrays are chunked and indexed by long (BigIntArray, BigLongArray),
+ * so the storage can hold graphs with more than 2^31 adjacency entries
+ * such graphs can be read with the long indexed getters, but copying them
+ * to the int arrays of a Graph throws an IllegalStateException (see Graph.MAX_ADJACENCY_LENGTH)
+ */
+public class OffHeapGraphStorage {
+
+	private final BigLongArray xadj;
+	private final BigIntArray adjncy;
+	private final BigIntArray adjwgt;
+	private final BigIntArray vwgt;
+
+	public OffHeapGraphStorage(int[] xadj, int[] adjncy, int[] adjwgt, int[] vwgt) {
+		this(vwgt.length, xadj[vwgt.length]);
+		this.setRows(0, vwgt.length, 0, xadj, adjncy, adjwgt, vwgt);
+	}
+
+	OffHeapGraphStorage(BigLongArray xadj, BigIntArray adjncy, BigIntArray adjwgt, BigIntArray vwgt) {
+		this.xadj = xadj;
+		this.adjncy = adjncy;
+		this.adjwgt = adjwgt;
+		this.vwgt = vwgt;
+	}
+
+	/*
+	 * storage for numberOfNodes nodes and adjacencyLength entries, the rows are filled by setRows
+	 */
+	OffHeapGraphStorage(int numberOfNodes, long adjacencyLength) {
+		this.xadj = new BigLongArray(numberOfNodes + 1L);
+		this.adjncy = new BigIntArray(adjacencyLength);
+		this.adjwgt = new BigIntArray(adjacencyLength);
+		this.vwgt = new BigIntArray(numberOfNodes);
+	}
+
+	/*
+	 * This function copies the rows of the nodes firstNode ... firstNode + count - 1,
+	 * xadj of the rows starts at 0 and they are copied at position offset of the adjacency
+	 * different threads can copy the rows of different nodes
+	 */
+	void setRows(int firstNode, int count, long offset, int[] xadj, int[] adjncy, int[] adjwgt, int[] vwgt) {
+		int length = xadj[count];
+		this.adjncy.set(offset, adjncy, 0, length);
+		this.adjwgt.set(offset, adjwgt, 0, length);
+		this.vwgt.set(firstNode, vwgt, 0, count);
+		for (int i = 1; i <= count; i++) {
+			this.xadj.set(firstNode + i, offset + xadj[i]);
+		}
+	}
+
+	private static int[] toArray(BigIntArray array) {
+		if (array.length() > Graph.MAX_ADJACENCY_LENGTH) {
+			throw new IllegalStateException("array of " + array.length() + " entries does not fit in the heap arrays");
+		}
+		int[] values = new int[(int) array.length()];
+		array.get(0, values, 0, values.length);
+		return values;
+	}
+
+	public int getNumberOfNodes() {
+		return (int) this.vwgt.length();
+	}
+
+	public long getAdjacencyLength() {
+		return this.adjncy.length();
+	}
+
+	/*
+	 * Long indexed access, the neighbors of node index i
+	 * are at positions getNeighborsStart(i) ... getNeighborsStart(i + 1) - 1
+	 */
+	public long getNeighborsStart(int nodeIndex) {
+		return this.xadj.get(nodeIndex);
+	}
+
+	public int getNeighbor(long position) {
+		return this.adjncy.get(position);
+	}
+
+	public int getEdgeWeight(long position) {
+		return this.adjwgt.get(position);
+	}
+
+	public int getNodeWeight(int nodeIndex) {
+		return this.vwgt.get(nodeIndex);
+	}
+
+	/*
+	 * memory used off heap by the arrays in bytes
+	 */
+	public long getSize() {
+		return 8 * this.xadj.length() + 4 * (this.adjncy.length() + this.adjwgt.length() + this.vwgt.length());
+	}
+
+	/*
+	 * These functions copy the arrays back to the heap
+	 */
+	public int[] getXadj() {
+		if (this.getAdjacencyLength() > Graph.MAX_ADJACENCY_LENGTH) {
+			throw new IllegalStateException("adjacency of " + this.getAdjacencyLength()
+					+ " entries does not fit in the heap arrays");
+		}
+		int[] values = new int[(int) this.xadj.length()];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = (int) this.xadj.get(i);
+		}
+		return values;
+	}
+
+	public int[] getAdjncy() {
+		return toArray(this.adjncy);
+	}
+
+	public int[] getAdjwgt() {
+		return toArray(this.adjwgt);
+	}
+
+	public int[] getVwgt() {
+		return toArray(this.vwgt);
+	}
+}
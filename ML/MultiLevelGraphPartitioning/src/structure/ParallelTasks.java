@@ -0,0 +1,82 @@
+package structure;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/*
+ * Runs the parallel tasks of the coarsening (contraction, projection and the parallel matchings)
+ * on the common pool, so the levels do not create and tear down a pool each
+ *
+ * at most parallelism tasks run at a time: the calling thread and parallelism - 1 workers
+ * of the pool take the tasks in order until none is left,
+ * the common pool has availableProcessors - 1 threads by default, which caps the parallelism too
+ */
+public class ParallelTasks {
+
+	private ParallelTasks() {
+	}
+
+	/*
+	 * This function runs all the tasks at the same time and waits for all of them
+	 */
+	public static void invokeAll(List<? extends Callable<Void>> tasks) {
+		invokeAll(tasks, tasks.size());
+	}
+
+	/*
+	 * This function runs the tasks on at most parallelism threads and waits for all of them,
+	 * an exception of a task is thrown again in the calling thread
+	 */
+	public static void invokeAll(final List<? extends Callable<Void>> tasks, int parallelism) {
+		final AtomicInteger nextTask = new AtomicInteger();
+		Callable<Void> worker = new Callable<Void>() {
+			@Override
+			public Void call() throws Exception {
+				for (int t = nextTask.getAndIncrement(); t < tasks.size(); t = nextTask.getAndIncrement()) {
+					tasks.get(t).call();
+				}
+				return null;
+			}
+		};
+		int numberOfWorkers = Math.max(1, Math.min(parallelism, tasks.size()));
+		ArrayList<Future<Void>> futures = new ArrayList<Future<Void>>(numberOfWorkers - 1);
+		for (int w = 1; w < numberOfWorkers; w++) {
+			futures.add(ForkJoinPool.commonPool().submit(worker));
+		}
+		Throwable failure = null;
+		try {
+			worker.call();
+		} catch (Exception e) {
+			failure = e;
+		}
+		// the workers use the arrays of the caller, so all of them end before an exception is thrown
+		try {
+			for (Future<Void> future : futures) {
+				try {
+					future.get();
+				} catch (ExecutionException e) {
+					if (failure == null) {
+						failure = e.getCause();
+					}
+				}
+			}
+		} catch (InterruptedException e) {
+			Thread.currentThread().interrupt();
+			throw new IllegalStateException("interrupted", e);
+		}
+		if (failure instanceof RuntimeException) {
+			throw (RuntimeException) failure;
+		}
+		if (failure instanceof Error) {
+			throw (Error) failure;
+		}
+		if (failure != null) {
+			throw new IllegalStateException(failure);
+		}
+	}
+}
@@ -25,7 +25,7 @@ public class Partition {
 		}
 
 		this.nodeIDs.add(nodeID);
-		int nodeWeight = this.graph.getNode(nodeID).getNodeWeight();
+		int nodeWeight = this.graph.getNodeWeight(nodeID);
 		this.partitionWeight += nodeWeight;
 		this.numberOfNodes++;
 
@@ -43,7 +43,7 @@ public class Partition {
 		}
 
 		this.nodeIDs.remove(nodeID);
-		int nodeWeight = this.graph.getNode(nodeID).getNodeWeight();
+		int nodeWeight = this.graph.getNodeWeight(nodeID);
 		this.partitionWeight -= nodeWeight;
 		this.numberOfNodes--;
 
@@ -69,7 +69,7 @@ public class Partition {
 		System.out.print("{");
 		while (it.hasNext()) {
 			int nodeID = it.next();
-			int nodeWeight = this.graph.getNode(nodeID).getNodeWeight();
+			int nodeWeight = this.graph.getNodeWeight(nodeID);
 			System.out.print(nodeID + "(" + nodeWeight + ")" + ",");
 
 		}
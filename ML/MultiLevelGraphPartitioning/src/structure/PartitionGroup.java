@@ -6,12 +6,21 @@ import java.util.Iterator;
 import java.util.Map;
 import java.util.Map.Entry;
 
+/*
+ * The partitions of a graph, partitions IDs are 1 ... partitionNumber
+ *
+ * the group can be created from an array where[v] = partition ID of the node with index v,
+ * then the Partition objects are created the first time they are requested
+ * and the array is dropped, the Partition objects hold the partitions from then on
+ */
 public class PartitionGroup {
 
 	HashMap<Integer, Partition> partitions;
 	int partitionNumber;
-	int edgeCut = -1; // -1 means it is not set
+	long edgeCut = -1; // -1 means it is not set
 	Graph graph;
+	// partition of each node index, null once the Partition objects are created
+	int[] where;
 
 	public PartitionGroup(Graph graph) {
 		this.graph = graph;
@@ -20,17 +29,67 @@ public class PartitionGroup {
 		this.edgeCut = -1;
 	}
 
+	public PartitionGroup(Graph graph, int[] where, int partitionNumber) {
+		this.graph = graph;
+		this.where = where;
+		this.partitionNumber = partitionNumber;
+		this.edgeCut = -1;
+	}
+
+	/*
+	 * This function creates the Partition objects from the where array
+	 */
+	private void createPartitions() {
+		this.partitions = new HashMap<Integer, Partition>();
+		for (int i = 1; i <= this.partitionNumber; i++) {
+			this.partitions.put(i, new Partition(this.graph, i));
+		}
+		for (int i = 0; i < this.where.length; i++) {
+			if (this.where[i] > 0) {
+				this.partitions.get(this.where[i]).addNode(i + 1);
+			}
+		}
+		this.where = null;
+	}
+
 	public void addPartition(Partition part) {
+		if (this.partitions == null) {
+			this.createPartitions();
+		}
 		this.partitions.put(part.getPartitionID(), part);
 		this.partitionNumber++;
 		this.edgeCut = -1;
 	}
 
+	/*
+	 * This function returns the partition ID of each node index,
+	 * nodes that are not in any partition have ID 0
+	 * the array is a copy if the Partition objects were created
+	 */
+	public int[] getWhere() {
+		if (this.where != null) {
+			return this.where;
+		}
+		int[] where = new int[this.graph.getNumberOfNodes()];
+		for (Partition part : this.partitions.values()) {
+			if (part.getNodeIDs() == null) {
+				continue;
+			}
+			for (int nodeID : part.getNodeIDs()) {
+				where[nodeID - 1] = part.getPartitionID();
+			}
+		}
+		return where;
+	}
+
 	public int getPartitionNumber() {
 		return partitionNumber;
 	}
 
 	public ArrayList<ArrayList<Integer>> getAllPartitionsNodes() {
+		if (this.partitions == null) {
+			this.createPartitions();
+		}
 		ArrayList<ArrayList<Integer>> nodesTree = new ArrayList<ArrayList<Integer>>();
 		Iterator<Entry<Integer, Partition>> partsIt = this.partitions.entrySet().iterator();
 		while (partsIt.hasNext()) {
@@ -47,21 +106,34 @@ public class PartitionGroup {
 		return nodesTree;
 	}
 
-	public int getEdgeCut() {
-		int edgeCut = 0;
-		if (this.edgeCut < 0) {
+	public long getEdgeCut() {
+		long edgeCut = 0;
+		if (this.edgeCut < 0 && this.where != null) {
+			int[] xadj = this.graph.getXadj();
+			int[] adjncy = this.graph.getAdjncy();
+			int[] adjwgt = this.graph.getAdjwgt();
+			for (int i = 0; i < this.where.length; i++) {
+				for (int j = xadj[i]; j < xadj[i + 1]; j++) {
+					if (this.where[adjncy[j]] != this.where[i]) {
+						edgeCut += adjwgt[j];
+					}
+				}
+			}
+			edgeCut = edgeCut / 2;
+		} else if (this.edgeCut < 0) {
+			int[] xadj = this.graph.getXadj();
+			int[] adjncy = this.graph.getAdjncy();
+			int[] adjwgt = this.graph.getAdjwgt();
 			Iterator<Entry<Integer, Partition>> partsIt = this.partitions.entrySet().iterator();
 			while (partsIt.hasNext()) {
 				Map.Entry<Integer, Partition> tuple = partsIt.next();
 				Partition part = tuple.getValue();
 				Iterator<Integer> it = part.getNodeIDs().iterator();
 				while (it.hasNext()) {
-					int nodeID = it.next();
-					Node curNode = this.graph.getNode(nodeID);
-					Node[] neighbors = curNode.getNeighbors();
-					for (int j = 0; j < neighbors.length; j++) {
-						if (!part.containsNode(neighbors[j].getNodeID())) {
-							edgeCut += this.graph.getEdge(nodeID, neighbors[j].getNodeID()).getWeight();
+					int nodeIndex = it.next() - 1;
+					for (int j = xadj[nodeIndex]; j < xadj[nodeIndex + 1]; j++) {
+						if (!part.containsNode(adjncy[j] + 1)) {
+							edgeCut += adjwgt[j];
 						}
 					}
 				}
@@ -74,6 +146,9 @@ public class PartitionGroup {
 	}
 
 	public Partition getPartition(int partID) {
+		if (this.partitions == null) {
+			this.createPartitions();
+		}
 		Partition part = this.partitions.get(partID);
 		return part;
 	}
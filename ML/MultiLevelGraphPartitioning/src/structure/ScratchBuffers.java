@@ -0,0 +1,70 @@
+package structure;
+
+import java.util.ArrayList;
+
+/*
+ * Work arrays shared by the coarsening of all the levels of a graph,
+ * each user asks for its arrays by slot number and gets the same array every time
+ * the array of a slot is allocated by the first request and only grows if a longer one is requested,
+ * since the first level is the largest, the levels after it do not allocate any work arrays
+ *
+ * the arrays are not cleared between requests and can be longer than requested,
+ * slots are not reserved, so an array is only valid until another user requests the same slot
+ * the buffers are not thread safe, the arrays of a parallel task must be requested before it starts
+ */
+public class ScratchBuffers {
+
+	private ArrayList<int[]> ints;
+	private ArrayList<long[]> longs;
+	// bytes allocated by the buffers since they were created
+	private long allocatedBytes;
+
+	public ScratchBuffers() {
+		this.ints = new ArrayList<int[]>();
+		this.longs = new ArrayList<long[]>();
+	}
+
+	public int[] getInts(int slot, int length) {
+		while (this.ints.size() <= slot) {
+			this.ints.add(null);
+		}
+		int[] array = this.ints.get(slot);
+		if (array == null || array.length < length) {
+			array = new int[length];
+			this.ints.set(slot, array);
+			this.allocatedBytes += 4L * length;
+		}
+		return array;
+	}
+
+	public long[] getLongs(int slot, int length) {
+		while (this.longs.size() <= slot) {
+			this.longs.add(null);
+		}
+		long[] array = this.longs.get(slot);
+		if (array == null || array.length < length) {
+			array = new long[length];
+			this.longs.set(slot, array);
+			this.allocatedBytes += 8L * length;
+		}
+		return array;
+	}
+
+	public long getAllocatedBytes() {
+		return allocatedBytes;
+	}
+
+	/*
+	 * memory held by the buffers in bytes
+	 */
+	public long getSize() {
+		long size = 0;
+		for (int[] array : this.ints) {
+			size += array == null ? 0 : 4L * array.length;
+		}
+		for (long[] array : this.longs) {
+			size += array == null ? 0 : 8L * array.length;
+		}
+		return size;
+	}
+}
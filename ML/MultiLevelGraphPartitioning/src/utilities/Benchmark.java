@@ -0,0 +1,395 @@
+package utilities;
+
+import java.io.File;
+import java.io.FileFilter;
+import java.io.IOException;
+import java.lang.management.ManagementFactory;
+import java.util.HashMap;
+import java.util.Random;
+
+import coarsening.BlossomMatching;
+import coarsening.Coarsener;
+import coarsening.GGGPMatching;
+import coarsening.HandshakeMatching;
+import coarsening.HeavyEdgeMatching;
+import coarsening.HeaviestEdgeMatching;
+import coarsening.LightEdgeMatching;
+import coarsening.Matching;
+import coarsening.ModifiedHeavyEdgeMatching;
+import coarsening.PathGrowingAlgorithm;
+import coarsening.PreisAlgorithm;
+import coarsening.RandomMatching;
+import coarsening.SuitorMatching;
+import coarsening.TriangleEdgeMatching;
+import structure.CoarseGraph;
+import structure.CompressedGraph;
+import structure.Edge;
+import partitioning.GreedyGraphGrowingPartitioning;
+import refinement.NaiiveKLRefinement;
+import structure.Graph;
+import structure.GraphHierarchy;
+import structure.GraphReader;
+import structure.PartitionGroup;
+import structure.ScratchBuffers;
+import structure.Tuple;
+
+/*
+ * Micro benchmarks of the graph structures
+ * usage: Benchmark <benchmark> [graph names], all graphs in graphs/ by default
+ *
+ * each measurement is repeated after warm up rounds so the JIT compiled code is measured,
+ * the results are summed and printed so the measured work is not removed as dead code
+ */
+public class Benchmark {
+
+	private static final int WARMUP_ROUNDS = 5;
+	private static final int ROUNDS = 10;
+
+	public static void main(String[] args) throws IOException {
+		if (args.length == 0) {
+			System.out.println("usage: Benchmark edgeLookup|viewMemory|contraction|allocation|matching|finalCut|compressed"
+					+ " [graph names]");
+			return;
+		}
+		String[] graphNames;
+		if (args.length > 1) {
+			graphNames = new String[args.length - 1];
+			System.arraycopy(args, 1, graphNames, 0, graphNames.length);
+		} else {
+			graphNames = getGraphNames("graphs");
+		}
+		for (int i = 0; i < graphNames.length; i++) {
+			String fileSrc = "graphs/" + graphNames[i] + ".graph";
+			GraphReader reader = new GraphReader(fileSrc);
+			reader.setCacheEnabled(true);
+			Graph graph = reader.read();
+			System.out.println(graphNames[i] + " n = " + graph.getNumberOfNodes() + " m = " + graph.getNumberOfEdges());
+			if (args[0].equals("edgeLookup")) {
+				edgeLookup(graph);
+			} else if (args[0].equals("viewMemory")) {
+				viewMemory(graph);
+			} else if (args[0].equals("contraction")) {
+				contraction(graph);
+			} else if (args[0].equals("allocation")) {
+				allocation(graph);
+			} else if (args[0].equals("matching")) {
+				matching(graph);
+			} else if (args[0].equals("finalCut")) {
+				finalCut(graph);
+			} else if (args[0].equals("compressed")) {
+				compressed(graph, fileSrc);
+			} else {
+				System.out.println("unknown benchmark " + args[0]);
+				return;
+			}
+		}
+	}
+
+	/*
+	 * Compares the edge lookup through a Tuple keyed HashMap (the former Graph.nodesEdgesMap)
+	 * with Graph.getEdgeWeight, half of the queried pairs are edges
+	 */
+	private static void edgeLookup(Graph graph) {
+		int[] xadj = graph.getXadj();
+		int[] adjncy = graph.getAdjncy();
+		int numberOfQueries = xadj[graph.getNumberOfNodes()];
+		int[] sources = new int[2 * numberOfQueries];
+		int[] destinations = new int[2 * numberOfQueries];
+		Random random = new Random(0);
+		int query = 0;
+		for (int i = 0; i < graph.getNumberOfNodes(); i++) {
+			for (int j = xadj[i]; j < xadj[i + 1]; j++) {
+				sources[query] = i + 1;
+				destinations[query] = adjncy[j] + 1;
+				query++;
+				sources[query] = i + 1;
+				destinations[query] = random.nextInt(graph.getNumberOfNodes()) + 1;
+				query++;
+			}
+		}
+		// build both indices before measuring
+		HashMap<Tuple<Integer, Integer>, Edge> nodesEdgesMap = new HashMap<Tuple<Integer, Integer>, Edge>();
+		Edge[] edges = graph.getEdges();
+		for (int i = 0; i < edges.length; i++) {
+			int min = Math.min(edges[i].getSourceID(), edges[i].getDestinationID());
+			int max = Math.max(edges[i].getSourceID(), edges[i].getDestinationID());
+			nodesEdgesMap.put(new Tuple<Integer, Integer>(min, max), edges[i]);
+		}
+		graph.getEdgeIndex();
+
+		long mapTime = Long.MAX_VALUE;
+		long indexTime = Long.MAX_VALUE;
+		long mapSum = 0;
+		long indexSum = 0;
+		for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+			long start = System.nanoTime();
+			for (int q = 0; q < query; q++) {
+				int min = Math.min(sources[q], destinations[q]);
+				int max = Math.max(sources[q], destinations[q]);
+				Edge edge = nodesEdgesMap.get(new Tuple<Integer, Integer>(min, max));
+				if (edge != null) {
+					mapSum += edge.getWeight();
+				}
+			}
+			long time = System.nanoTime() - start;
+			if (round >= WARMUP_ROUNDS) {
+				mapTime = Math.min(mapTime, time);
+			}
+
+			start = System.nanoTime();
+			for (int q = 0; q < query; q++) {
+				indexSum += graph.getEdgeWeight(sources[q], destinations[q]);
+			}
+			time = System.nanoTime() - start;
+			if (round >= WARMUP_ROUNDS) {
+				indexTime = Math.min(indexTime, time);
+			}
+		}
+		System.out.printf("  HashMap<Tuple, Edge>  %8.1f ns/lookup (sum %d)%n", (double) mapTime / query, mapSum);
+		System.out.printf("  getEdgeWeight         %8.1f ns/lookup (sum %d)%n", (double) indexTime / query, indexSum);
+	}
+
+	/*
+	 * Measures the heap used by the Node/Edge view of each coarsening level,
+	 * the levels are coarsened with heavy edge matching down to 100 nodes
+	 */
+	private static void viewMemory(Graph graph) {
+		Matching matching = new HeavyEdgeMatching();
+		int level = 0;
+		while (true) {
+			long before = usedMemory();
+			graph.getNodes();
+			long after = usedMemory();
+			System.out.printf("  level %2d n = %7d view = %8d KB (%d bytes/node)%n", level, graph.getNumberOfNodes(),
+					(after - before) >> 10, (after - before) / Math.max(1, graph.getNumberOfNodes()));
+			if (graph.getNumberOfNodes() <= 100) {
+				break;
+			}
+			Graph coarseGraph = new CoarseGraph(graph, matching.coarse(graph, 100));
+			if (coarseGraph.getNumberOfNodes() == graph.getNumberOfNodes()) {
+				break;
+			}
+			graph = coarseGraph;
+			level++;
+		}
+	}
+
+	/*
+	 * Measures the contraction time of each coarsening level on one thread and on all processors,
+	 * the levels are coarsened with heaviest edge matching (deterministic) down to 100 nodes
+	 */
+	private static void contraction(Graph graph) {
+		Matching matching = new HeaviestEdgeMatching();
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		int level = 0;
+		while (graph.getNumberOfNodes() > 100) {
+			int[] cmap = matching.coarseMap(graph, 100);
+			Graph coarseGraph = null;
+			long time = Long.MAX_VALUE;
+			long parallelTime = Long.MAX_VALUE;
+			for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+				long start = System.nanoTime();
+				coarseGraph = new CoarseGraph(graph, cmap);
+				long end = System.nanoTime();
+				new CoarseGraph(graph, cmap, false, parallelism);
+				if (round >= WARMUP_ROUNDS) {
+					time = Math.min(time, end - start);
+					parallelTime = Math.min(parallelTime, System.nanoTime() - end);
+				}
+			}
+			System.out.printf("  level %2d n = %7d -> %7d contraction = %8.2f ms, %d threads = %8.2f ms%n", level,
+					graph.getNumberOfNodes(), coarseGraph.getNumberOfNodes(), time / 1e6, parallelism, parallelTime / 1e6);
+			if (coarseGraph.getNumberOfNodes() == graph.getNumberOfNodes()) {
+				break;
+			}
+			graph = coarseGraph;
+			level++;
+		}
+	}
+
+	/*
+	 * Measures the bytes allocated by the matching and the contraction of each level
+	 * besides their results (the coarse map and the coarse graph arrays),
+	 * the levels are coarsened with heaviest edge matching down to 100 nodes sharing the scratch buffers
+	 * of a hierarchy, only the first level should allocate work arrays
+	 */
+	private static void allocation(Graph graph) {
+		com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory
+				.getThreadMXBean();
+		long thread = Thread.currentThread().getId();
+		GraphHierarchy hierarchy = new GraphHierarchy(graph);
+		ScratchBuffers scratchBuffers = hierarchy.getScratchBuffers();
+		Matching matching = new HeaviestEdgeMatching();
+		matching.setScratchBuffers(scratchBuffers);
+		int level = 0;
+		while (graph.getNumberOfNodes() > 100) {
+			long before = threads.getThreadAllocatedBytes(thread);
+			long scratchBefore = scratchBuffers.getAllocatedBytes();
+			int[] cmap = matching.coarseMap(graph, 100);
+			long matchingBytes = threads.getThreadAllocatedBytes(thread) - before - 4L * cmap.length;
+			before = threads.getThreadAllocatedBytes(thread);
+			Graph coarseGraph = hierarchy.addLevel(cmap);
+			long contractionBytes = threads.getThreadAllocatedBytes(thread) - before - coarseGraph.getHeapSize();
+			System.out.printf("  level %2d n = %7d matching = %8d KB contraction = %8d KB scratch = %8d KB%n", level,
+					graph.getNumberOfNodes(), matchingBytes >> 10, contractionBytes >> 10,
+					(scratchBuffers.getAllocatedBytes() - scratchBefore) >> 10);
+			if (coarseGraph.getNumberOfNodes() == graph.getNumberOfNodes()) {
+				break;
+			}
+			graph = coarseGraph;
+			level++;
+		}
+	}
+
+	/*
+	 * Measures the time of one matching of the graph for each matching scheme,
+	 * the coarse number of nodes shows how much the matching reduces the graph,
+	 * the coarse edge cut (the weight of the edges left between coarse nodes) how heavy the matched edges are
+	 */
+	private static void matching(Graph graph) {
+		Matching[] matchings = { new HeavyEdgeMatching(), new ModifiedHeavyEdgeMatching(), new LightEdgeMatching(),
+				new HeaviestEdgeMatching(), new HandshakeMatching(), new SuitorMatching(), new PathGrowingAlgorithm(),
+				new PreisAlgorithm(), new RandomMatching(), new TriangleEdgeMatching() };
+		for (int m = 0; m < matchings.length; m++) {
+			matchings[m].setSeed(0);
+			int[] cmap = null;
+			long time = Long.MAX_VALUE;
+			for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+				long start = System.nanoTime();
+				cmap = matchings[m].coarseMap(graph, 100);
+				if (round >= WARMUP_ROUNDS) {
+					time = Math.min(time, System.nanoTime() - start);
+				}
+			}
+			int numberOfCoarseNodes = 0;
+			for (int i = 0; i < cmap.length; i++) {
+				numberOfCoarseNodes = Math.max(numberOfCoarseNodes, cmap[i] + 1);
+			}
+			long coarseEdgeCut = 0;
+			int[] xadj = graph.getXadj();
+			int[] adjncy = graph.getAdjncy();
+			int[] adjwgt = graph.getAdjwgt();
+			for (int i = 0; i < graph.getNumberOfNodes(); i++) {
+				for (int j = xadj[i]; j < xadj[i + 1]; j++) {
+					if (cmap[adjncy[j]] != cmap[i]) {
+						coarseEdgeCut += adjwgt[j];
+					}
+				}
+			}
+			System.out.printf("  %-26s %8.2f ms (%5.1f ns/edge) coarse n = %7d coarse edge cut = %9d%n",
+					matchings[m].getClass().getSimpleName(), time / 1e6, (double) time / graph.getNumberOfEdges(),
+					numberOfCoarseNodes, coarseEdgeCut / 2);
+		}
+	}
+
+	/*
+	 * Runs the multilevel partitioning of Main with each matching scheme against the random matching baseline,
+	 * it prints the coarsening time, the time of the whole cycle and the final edge cut of 2 partitions,
+	 * each scheme runs once, so the first one also pays the JIT warm up,
+	 * the refinement of every level is slow on graphs of more than a few thousand nodes
+	 */
+	private static void finalCut(Graph graph) {
+		Matching[] matchings = { new RandomMatching(), new HeavyEdgeMatching(), new ModifiedHeavyEdgeMatching(),
+				new BlossomMatching(), new GGGPMatching(), new TriangleEdgeMatching() };
+		for (int m = 0; m < matchings.length; m++) {
+			matchings[m].setSeed(0);
+			long start = System.nanoTime();
+			Coarsener coarsener = new Coarsener(matchings[m], 2);
+			coarsener.setTargetReduction(0.4);
+			coarsener.setTwoHopMatching(true);
+			GraphHierarchy hierarchy = coarsener.coarsen(graph);
+			long coarseningTime = System.nanoTime() - start;
+			Graph last = hierarchy.getCoarsestGraph();
+			PartitionGroup partsGroup = new GreedyGraphGrowingPartitioning(last, 2, 20, 0).getPartitions(last, 2, 20);
+			PartitionGroup refinedParts = new NaiiveKLRefinement(last, partsGroup, 10, 0, (float) 0.0)
+					.getRefinedPartitions();
+			for (int level = hierarchy.getNumberOfLevels() - 1; level > 0; level--) {
+				PartitionGroup uncoarsenPartitions = Main.uncoarsenPartitions(hierarchy, level, refinedParts);
+				refinedParts = new NaiiveKLRefinement(hierarchy.getGraph(level - 1), uncoarsenPartitions, 10, 0,
+						(float) 0.0).getRefinedPartitions();
+			}
+			long time = System.nanoTime() - start;
+			System.out.printf("  %-26s levels = %2d coarsening = %9.2f ms total = %9.2f ms edge cut = %7d%n",
+					matchings[m].getClass().getSimpleName(), hierarchy.getNumberOfLevels() - 1, coarseningTime / 1e6,
+					time / 1e6, refinedParts.getEdgeCut());
+		}
+	}
+
+	/*
+	 * Compares reading the file into the adjacency arrays and into compressed storage,
+	 * their size, and the time to visit every neighbor and edge weight through each of them
+	 */
+	private static void compressed(Graph graph, String fileSrc) throws IOException {
+		int parallelism = Runtime.getRuntime().availableProcessors();
+		long readTime = Long.MAX_VALUE;
+		long compressedReadTime = Long.MAX_VALUE;
+		CompressedGraph compressedGraph = null;
+		for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+			GraphReader reader = new GraphReader(fileSrc);
+			reader.setParallelism(parallelism);
+			reader.read();
+			GraphReader compressedReader = new GraphReader(fileSrc);
+			compressedReader.setParallelism(parallelism);
+			compressedGraph = compressedReader.readCompressed();
+			if (round >= WARMUP_ROUNDS) {
+				readTime = Math.min(readTime, reader.getLoadTime());
+				compressedReadTime = Math.min(compressedReadTime, compressedReader.getLoadTime());
+			}
+		}
+
+		int numberOfNodes = graph.getNumberOfNodes();
+		int[] xadj = graph.getXadj();
+		int[] adjncy = graph.getAdjncy();
+		int[] adjwgt = graph.getAdjwgt();
+		CompressedGraph.NeighborIterator iterator = compressedGraph.getNeighbors(1);
+		long scanTime = Long.MAX_VALUE;
+		long compressedScanTime = Long.MAX_VALUE;
+		long sum = 0;
+		long compressedSum = 0;
+		for (int round = 0; round < WARMUP_ROUNDS + ROUNDS; round++) {
+			long start = System.nanoTime();
+			for (int i = 0; i < numberOfNodes; i++) {
+				for (int j = xadj[i]; j < xadj[i + 1]; j++) {
+					sum += adjncy[j] + adjwgt[j];
+				}
+			}
+			long time = System.nanoTime() - start;
+			start = System.nanoTime();
+			for (int i = 0; i < numberOfNodes; i++) {
+				iterator.reset(i + 1);
+				while (iterator.hasNext()) {
+					compressedSum += iterator.next() - 1 + iterator.getWeight();
+				}
+			}
+			if (round >= WARMUP_ROUNDS) {
+				scanTime = Math.min(scanTime, time);
+				compressedScanTime = Math.min(compressedScanTime, System.nanoTime() - start);
+			}
+		}
+		long arraysSize = 4L * (xadj.length + 2L * xadj[numberOfNodes]);
+		System.out.printf("  arrays      read = %8.2f ms size = %8d KB scan = %6.2f ms (sum %d)%n", readTime / 1e6,
+				arraysSize >> 10, scanTime / 1e6, sum);
+		System.out.printf("  compressed  read = %8.2f ms size = %8d KB scan = %6.2f ms (sum %d)%n",
+				compressedReadTime / 1e6, compressedGraph.getAdjacencySize() >> 10, compressedScanTime / 1e6,
+				compressedSum);
+	}
+
+	private static long usedMemory() {
+		Runtime runtime = Runtime.getRuntime();
+		for (int i = 0; i < 3; i++) {
+			System.gc();
+		}
+		return runtime.totalMemory() - runtime.freeMemory();
+	}
+
+	private static String[] getGraphNames(String folderPath) {
+		File folder = new File(folderPath);
+		FileFilter graphFileFilter = new GraphFileFilter();
+		File[] listOfFiles = folder.listFiles(graphFileFilter);
+		String[] graphNames = new String[listOfFiles.length];
+		for (int i = 0; i < listOfFiles.length; i++) {
+			graphNames[i] = listOfFiles[i].getName().replace(".graph", "");
+		}
+		return graphNames;
+	}
+}
@@ -12,5 +12,7 @@ public enum CoarseSchemes {
 	LightestEdgeMatching, // Just invented it :)
 	TriangleEdgeMatching,
 	PreisAlgorithm,
-	PathGrowingAlgorithm
+	PathGrowingAlgorithm,
+	HandshakeMatching,
+	SuitorMatching
 }
@@ -2,19 +2,20 @@ package utilities;
 
 import java.io.File;
 import java.io.FileFilter;
+import java.io.IOException;
 import java.lang.reflect.Constructor;
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Modifier;
 import java.util.ArrayList;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.List;
 
+import coarsening.Coarsener;
 import coarsening.Matching;
 import partitioning.Partitioning;
 import refinement.NaiiveKLRefinement;
-import structure.CoarseGraph;
 import structure.Graph;
-import structure.Partition;
+import structure.GraphHierarchy;
+import structure.GraphReader;
 import structure.PartitionGroup;
 
 public class Main {
@@ -23,6 +24,8 @@ public class Main {
 			throws ClassNotFoundException, InstantiationException, IllegalAccessException, NoSuchMethodException,
 			SecurityException, IllegalArgumentException, InvocationTargetException {
 
+		// -offheap keeps the graphs that are not being used off heap while coarsening
+		boolean offHeap = args.length > 0 && args[0].equals("-offheap");
 		String[] graphNames = getGraphNames("graphs");
 		// loop all graphs
 		for (int i = 0; i < graphNames.length; i++) {
@@ -31,29 +34,46 @@ public class Main {
 //			}
 			String fileSrc = "graphs/" + graphNames[i] + ".graph";
 			System.out.println(graphNames[i]);
-			Graph x = new Graph(fileSrc);
+			GraphReader reader = new GraphReader(fileSrc);
+			reader.setParallelism(Runtime.getRuntime().availableProcessors());
+			reader.setCacheEnabled(true);
+			Graph x;
+			try {
+				x = reader.read();
+			} catch (IOException e) {
+				e.printStackTrace();
+				continue;
+			}
+			System.out.println("load time = " + reader.getLoadTime() / 1000000 + " ms ("
+					+ (long) (reader.getBytesPerSecond() / (1 << 20)) + " MB/s"
+					+ (reader.isLoadedFromCache() ? ", cache)" : ")"));
 			
 
 			// get list of coarsen Class available in coarsening package
-			ArrayList<Class> coarseningClasses = getClasses("bin/coarsening", "coarsening");
+			List<Class<? extends Matching>> coarseningClasses = getClasses("bin/coarsening", "coarsening",
+					Matching.class);
 			// loop all coarsening schemes
 			for (int j = 0; j < coarseningClasses.size(); j++) {
 				if(coarseningClasses.get(j).getName().contains("GabowWeightedMatching")) continue;
-				ArrayList<Graph> graphs = new ArrayList<Graph>();
-				graphs.add(x);
-				Graph last = x;
-				Matching match = (Matching) coarseningClasses.get(j).newInstance();
+				Matching match = coarseningClasses.get(j).newInstance();
 				System.out.println(match.getSchemeName());
-				while (last.getNumberOfNodes() > 100) {
-					graphs.add(new CoarseGraph(last, match.coarse(last, 100)));
-					last = graphs.get(graphs.size() - 1);
-					//System.out.println("number of nodes = " + last.getNumberOfNodes());
-				}
-				ArrayList<Class> partitioningClasses = getClasses("bin/partitioning", "partitioning");
+				Coarsener coarsener = new Coarsener(match, 2);
+				coarsener.setOffHeap(offHeap);
+				// match the nodes a matching leaves alone until a level removes 40% of the nodes
+				coarsener.setTargetReduction(0.4);
+				coarsener.setTwoHopMatching(true);
+				coarsener.setParallelism(Runtime.getRuntime().availableProcessors());
+				GraphHierarchy hierarchy = coarsener.coarsen(x);
+				Graph last = hierarchy.getCoarsestGraph();
+				System.out.println("levels = " + hierarchy.getNumberOfLevels() + " nodes = " + last.getNumberOfNodes()
+						+ " (" + coarsener.getStopReason() + ") memory = " + (hierarchy.getMemoryFootprint() >> 10)
+						+ " KB");
+				List<Class<? extends Partitioning>> partitioningClasses = getClasses("bin/partitioning", "partitioning",
+						Partitioning.class);
 				for (int k = 0; k < partitioningClasses.size(); k++) {
-					Constructor partConstructor = partitioningClasses.get(k).getConstructor(Graph.class, Integer.TYPE,
-							Integer.TYPE, Float.TYPE);
-					Partitioning gGGP = (Partitioning) partConstructor.newInstance(last, 2, 20, 0);
+					Constructor<? extends Partitioning> partConstructor = partitioningClasses.get(k)
+							.getConstructor(Graph.class, Integer.TYPE, Integer.TYPE, Float.TYPE);
+					Partitioning gGGP = partConstructor.newInstance(last, 2, 20, 0);
 					// Partitioning gGGP = new
 					// GreedyGraphGrowingPartitioning(last, 2, 20, 0);
 					PartitionGroup partsGroup = gGGP.getPartitions(last, 2, 20);
@@ -68,11 +88,10 @@ public class Main {
 					// kl.getNumberOfSwapsApplied());
 					// System.out.println("edge Cut after refinement = " +
 					// getEdgeCut(refinedParts, last));
-					int graphIndex = graphs.size() - 1;
+					int graphIndex = hierarchy.getNumberOfLevels() - 1;
 					while (graphIndex > 0) {
-						CoarseGraph curGraph = (CoarseGraph) graphs.get(graphIndex);
-						Graph previousGraph = graphs.get(graphIndex - 1);
-						PartitionGroup uncoarsenPartitions = uncoarsenPartitions(curGraph, previousGraph, refinedParts);
+						Graph previousGraph = hierarchy.getGraph(graphIndex - 1);
+						PartitionGroup uncoarsenPartitions = uncoarsenPartitions(hierarchy, graphIndex, refinedParts);
 						// System.out.println("edge Cut before refinement = " +
 						// getEdgeCut(uncoarsenPartitions, previousGraph));
 						// kl = new KLRefinement(previousGraph,
@@ -95,26 +114,15 @@ public class Main {
 		}
 	}
 
-	private static PartitionGroup uncoarsenPartitions(CoarseGraph curGraph, Graph previousGraph,
+	/*
+	 * This function projects the partitions of a level to the finer level,
+	 * each node takes the partition of its coarse node
+	 */
+	static PartitionGroup uncoarsenPartitions(GraphHierarchy hierarchy, int level,
 			PartitionGroup refinedParts) {
-		PartitionGroup uncoarsenParts = new PartitionGroup(previousGraph);
-		int partitionNum = refinedParts.getPartitionNumber();
-		for (int i = 1; i < partitionNum + 1; i++) {
-			Partition part = refinedParts.getPartition(i);
-			int partitionID = part.getPartitionID();
-			Partition uncoarsenPart = new Partition(previousGraph, partitionID);
-			HashSet<Integer> nodes = part.getNodeIDs();
-			Iterator<Integer> it = nodes.iterator();
-			while (it.hasNext()) {
-				int nodeID = it.next();
-				ArrayList<Integer> childsNodes = curGraph.getNodeChilds(nodeID);
-				for (int j = 0; j < childsNodes.size(); j++) {
-					uncoarsenPart.addNode(childsNodes.get(j));
-				}
-			}
-			uncoarsenParts.addPartition(uncoarsenPart);
-		}
-		return uncoarsenParts;
+		int[] where = hierarchy.projectToFiner(level, refinedParts.getWhere(),
+				Runtime.getRuntime().availableProcessors());
+		return new PartitionGroup(hierarchy.getGraph(level - 1), where, refinedParts.getPartitionNumber());
 	}
 
 	private static String[] getGraphNames(String folderPath) {
@@ -129,7 +137,11 @@ public class Main {
 		return graphNames;
 	}
 
-	private static ArrayList<Class> getClasses(String packagePath, String packageName) throws ClassNotFoundException {
+	/*
+	 * This function returns the classes of the package that can be instantiated as baseClass
+	 */
+	private static <T> List<Class<? extends T>> getClasses(String packagePath, String packageName, Class<T> baseClass)
+			throws ClassNotFoundException {
 		File folder = new File(packagePath);
 		FileFilter classFileFilter = new ClassFileFilter();
 		File[] listOfFiles = folder.listFiles(classFileFilter);
@@ -138,11 +150,11 @@ public class Main {
 			classNames[i] = listOfFiles[i].getName().replace(".class", "");
 		}
 
-		ArrayList<Class> classes = new ArrayList<Class>();
+		List<Class<? extends T>> classes = new ArrayList<Class<? extends T>>();
 		for (int i = 0; i < classNames.length; i++) {
-			Class cls = Class.forName(packageName + "." + classNames[i]);
-			if (!Modifier.isAbstract(cls.getModifiers())) {
-				classes.add(cls);
+			Class<?> cls = Class.forName(packageName + "." + classNames[i]);
+			if (!Modifier.isAbstract(cls.getModifiers()) && baseClass.isAssignableFrom(cls)) {
+				classes.add(cls.asSubclass(baseClass));
 			}
 		}
 		return classes;
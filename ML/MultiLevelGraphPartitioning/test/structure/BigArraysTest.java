@@ -0,0 +1,174 @@
+package structure;
+
+import java.io.File;
+import java.io.FileWriter;
+import java.io.IOException;
+import java.util.Arrays;
+
+/*
+ * Tests of the long indexed off heap arrays past the int range and of the limits of the int indexed graph
+ * the arrays use small chunks allocated when they are written, so arrays of more than 2^31 entries fit in a few MB
+ *
+ * run with the src and test folders compiled together: java structure.BigArraysTest
+ * a failed check throws an AssertionError
+ */
+public class BigArraysTest {
+
+	private static final long LENGTH = (1L << 31) + 1000;
+	// 2^20 entries per chunk
+	private static final int CHUNK_SHIFT = 20;
+
+	public static void main(String[] args) throws IOException {
+		bigIntArray();
+		bigLongArray();
+		offHeapGraphStorage();
+		edgeIndexFull();
+		readerLimit();
+		System.out.println("BigArraysTest passed");
+	}
+
+	private static void bigIntArray() {
+		BigIntArray array = new BigIntArray(LENGTH, CHUNK_SHIFT, false);
+		check(array.length() == LENGTH, "length " + array.length());
+		long[] indices = { 0, Integer.MAX_VALUE - 1, Integer.MAX_VALUE, 1L << 31, LENGTH - 1 };
+		for (int k = 0; k < indices.length; k++) {
+			array.set(indices[k], k + 1);
+		}
+		for (int k = 0; k < indices.length; k++) {
+			check(array.get(indices[k]) == k + 1, "get at " + indices[k]);
+		}
+		// not written, in a written chunk and in a chunk that was never written
+		check(array.get((1L << 31) + 1) == 0, "unwritten value");
+		check(array.get(1L << 30) == 0, "unwritten chunk");
+
+		// bulk copies across the chunk boundary at 2^31
+		int[] values = new int[100];
+		for (int i = 0; i < values.length; i++) {
+			values[i] = 7 * i + 1;
+		}
+		array.set((1L << 31) - 50, values, 0, values.length);
+		int[] read = new int[values.length];
+		array.get((1L << 31) - 50, read, 0, read.length);
+		check(Arrays.equals(values, read), "bulk copy across 2^31");
+		check(array.get(1L << 31) == values[50], "value at 2^31 after bulk copy");
+		array.get((1L << 30) - 10, read, 0, 20);
+		check(read[0] == 0 && read[19] == 0, "bulk read of unwritten chunks");
+	}
+
+	private static void bigLongArray() {
+		BigLongArray array = new BigLongArray(LENGTH, CHUNK_SHIFT, false);
+		check(array.length() == LENGTH, "length " + array.length());
+		long[] indices = { 0, Integer.MAX_VALUE, 1L << 31, LENGTH - 1 };
+		for (int k = 0; k < indices.length; k++) {
+			array.set(indices[k], (1L << 40) + k);
+		}
+		for (int k = 0; k < indices.length; k++) {
+			check(array.get(indices[k]) == (1L << 40) + k, "get at " + indices[k]);
+		}
+		long[] values = { LENGTH, LENGTH + 1, LENGTH + 2 };
+		array.set((1L << 31) - 1, values, 0, values.length);
+		long[] read = new long[values.length];
+		array.get((1L << 31) - 1, read, 0, read.length);
+		check(Arrays.equals(values, read), "bulk copy across 2^31");
+	}
+
+	/*
+	 * node 0 has no neighbors, node 1 has LENGTH - 2 neighbors and node 2 has 2,
+	 * only the entries checked are written
+	 */
+	private static void offHeapGraphStorage() {
+		BigLongArray xadj = new BigLongArray(4, CHUNK_SHIFT, false);
+		xadj.set(2, LENGTH - 2);
+		xadj.set(3, LENGTH);
+		BigIntArray adjncy = new BigIntArray(LENGTH, CHUNK_SHIFT, false);
+		BigIntArray adjwgt = new BigIntArray(LENGTH, CHUNK_SHIFT, false);
+		adjncy.set(LENGTH - 2, 0);
+		adjncy.set(LENGTH - 1, 1);
+		adjwgt.set(LENGTH - 2, 5);
+		adjwgt.set(LENGTH - 1, 6);
+		BigIntArray vwgt = new BigIntArray(3, CHUNK_SHIFT, false);
+		vwgt.set(0, new int[] { 1, 2, 3 }, 0, 3);
+		OffHeapGraphStorage storage = new OffHeapGraphStorage(xadj, adjncy, adjwgt, vwgt);
+
+		check(storage.getNumberOfNodes() == 3, "number of nodes");
+		check(storage.getAdjacencyLength() == LENGTH, "adjacency length " + storage.getAdjacencyLength());
+		check(storage.getNeighborsStart(2) == LENGTH - 2 && storage.getNeighborsStart(3) == LENGTH, "row of node 2");
+		check(storage.getNeighbor(LENGTH - 1) == 1 && storage.getEdgeWeight(LENGTH - 1) == 6, "last neighbor");
+		check(storage.getNodeWeight(2) == 3, "node weight");
+		check(storage.getSize() > 8L * Integer.MAX_VALUE, "size " + storage.getSize());
+
+		try {
+			storage.getXadj();
+			throw new AssertionError("xadj of more than 2^31 entries copied to the heap");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+		try {
+			storage.getAdjncy();
+			throw new AssertionError("adjncy of more than 2^31 entries copied to the heap");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+
+		// a graph of this storage fails when its arrays are accessed, not with an overflow
+		Graph graph = new Graph();
+		graph.setOffHeapAdjacency(storage);
+		check(graph.getNumberOfEdges() == LENGTH / 2, "number of edges " + graph.getNumberOfEdges());
+		try {
+			graph.getAdjncy();
+			throw new AssertionError("graph of more than 2^31 adjacency entries moved on heap");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	/*
+	 * a table of 4 entries holds 3 edges, the fourth edge throws instead of probing forever
+	 */
+	private static void edgeIndexFull() {
+		// path 0 - 1 - 2 - 3
+		int[] xadj = { 0, 1, 3, 5, 6 };
+		int[] adjncy = { 1, 0, 2, 1, 3, 2 };
+		EdgeIndex index = new EdgeIndex(xadj, adjncy, 4);
+		check(index.getPosition(2, 1) == 2 && index.getPosition(0, 3) == -1, "lookups in a full index");
+
+		// cycle 0 - 1 - 2 - 3 - 0
+		xadj = new int[] { 0, 2, 4, 6, 8 };
+		adjncy = new int[] { 1, 3, 0, 2, 1, 3, 2, 0 };
+		try {
+			new EdgeIndex(xadj, adjncy, 4);
+			throw new AssertionError("4 edges added to an index of 4 entries");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	/*
+	 * headers past the limits of the int arrays are rejected before parsing
+	 */
+	private static void readerLimit() throws IOException {
+		String[] headers = { "3 " + (Graph.MAX_ADJACENCY_LENGTH / 2 + 1), Integer.MAX_VALUE + " 1" };
+		for (String header : headers) {
+			File file = File.createTempFile("BigArraysTest", ".graph");
+			try {
+				FileWriter writer = new FileWriter(file);
+				writer.write(header + "\n");
+				writer.close();
+				try {
+					new GraphReader(file.getPath()).read();
+					throw new AssertionError("header " + header + " accepted");
+				} catch (IOException e) {
+					check(e.getMessage().contains("at most"), "message " + e.getMessage());
+				}
+			} finally {
+				file.delete();
+			}
+		}
+	}
+
+	private static void check(boolean condition, String message) {
+		if (!condition) {
+			throw new AssertionError(message);
+		}
+	}
+}